@@ -0,0 +1,86 @@
+package mastermind.bench;
+
+import mastermind.model.GameConfig;
+
+/**
+ * One benchmarked operation on one board. The runner calls {@link #setUp()}
+ * once per trial and then {@link #invoke()} repeatedly. Benchmarks whose
+ * operation changes the state override {@link #prepare()}, which is then
+ * called before each invocation and not measured.
+ */
+public abstract class Benchmark {
+
+    private final String name;
+    private final String parameter;
+    protected final GameConfig config;
+
+    /**
+     * Creates a benchmark.
+     *
+     * @param name The name of the benchmark.
+     * @param parameter The parameter besides the board, {@code null} if none.
+     * @param config The board configuration.
+     */
+    protected Benchmark(String name, String parameter, GameConfig config) {
+        this.name = name;
+        this.parameter = parameter;
+        this.config = config;
+    }
+
+    /**
+     * Gets the name of the benchmark.
+     *
+     * @return The name.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Gets the parameter besides the board.
+     *
+     * @return The parameter or {@code null} if none.
+     */
+    public String getParameter() {
+        return parameter;
+    }
+
+    /**
+     * Gets the board of the benchmark.
+     *
+     * @return The board configuration.
+     */
+    public GameConfig getConfig() {
+        return config;
+    }
+
+    /**
+     * Prepares the trial, not measured.
+     */
+    protected void setUp() {
+    }
+
+    /**
+     * Determines whether {@link #prepare()} is run before each invocation.
+     * The invocations are then timed one by one instead of in batches.
+     *
+     * @return {@code true} if each invocation needs preparation.
+     */
+    protected boolean isPreparedPerInvocation() {
+        return false;
+    }
+
+    /**
+     * Prepares the next invocation, not measured.
+     */
+    protected void prepare() {
+    }
+
+    /**
+     * Runs the measured operation once.
+     *
+     * @return A value depending on the result, so the operation cannot be
+     *         optimized away.
+     */
+    protected abstract int invoke();
+}
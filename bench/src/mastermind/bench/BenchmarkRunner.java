@@ -0,0 +1,226 @@
+package mastermind.bench;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import mastermind.model.GameConfig;
+
+/**
+ * Runs the model benchmarks and reports the average time per operation.
+ * Each benchmark is warmed up and then measured in several timed iterations.
+ * The results can be written as JSON in the layout of JMH result files, so
+ * runs before and after a change can be diffed with the usual tools.
+ *
+ * Options: {@code -b 4x6,5x8} boards, {@code -f name} only benchmarks whose
+ * name contains the filter, {@code -wi 3} warmup iterations, {@code -i 5}
+ * measured iterations, {@code -t 500} milliseconds per iteration and
+ * {@code -o file} the JSON result file.
+ *
+ * The vector scoring backend is benchmarked only if the {@code simd} sources
+ * are on the class path and the JVM runs with
+ * {@code --add-modules jdk.incubator.vector}.
+ */
+public final class BenchmarkRunner {
+
+    // invocations timed together if no preparation is needed
+    private static final int BATCH = 1 << 10;
+
+    private int warmupIterations = 3;
+    private int iterations = 5;
+    private long iterationNanos = 500_000_000L;
+
+    // sink for the benchmark results
+    private int blackhole;
+
+    /**
+     * Result of one benchmark.
+     */
+    static final class Result {
+        final Benchmark benchmark;
+        final double[] nanosPerOp;
+
+        Result(Benchmark benchmark, double[] nanosPerOp) {
+            this.benchmark = benchmark;
+            this.nanosPerOp = nanosPerOp;
+        }
+
+        double mean() {
+            double sum = 0;
+            for (double value : nanosPerOp) {
+                sum += value;
+            }
+            return sum / nanosPerOp.length;
+        }
+
+        // half width of the 99.9% confidence interval, normal approximation
+        double error() {
+            if (nanosPerOp.length < 2) {
+                return Double.NaN;
+            }
+            double mean = mean();
+            double squares = 0;
+            for (double value : nanosPerOp) {
+                squares += (value - mean) * (value - mean);
+            }
+            double deviation = Math.sqrt(squares / (nanosPerOp.length - 1));
+            return 3.29 * deviation / Math.sqrt(nanosPerOp.length);
+        }
+    }
+
+    Result run(Benchmark benchmark) {
+        benchmark.setUp();
+        for (int i = 0; i < warmupIterations; i++) {
+            iteration(benchmark);
+        }
+        double[] nanosPerOp = new double[iterations];
+        for (int i = 0; i < iterations; i++) {
+            nanosPerOp[i] = iteration(benchmark);
+        }
+        return new Result(benchmark, nanosPerOp);
+    }
+
+    private double iteration(Benchmark benchmark) {
+        long measured = 0;
+        long operations = 0;
+        long end = System.nanoTime() + iterationNanos;
+        if (benchmark.isPreparedPerInvocation()) {
+            do {
+                benchmark.prepare();
+                long start = System.nanoTime();
+                blackhole ^= benchmark.invoke();
+                measured += System.nanoTime() - start;
+                operations++;
+            } while (System.nanoTime() < end);
+        } else {
+            do {
+                long start = System.nanoTime();
+                for (int i = 0; i < BATCH; i++) {
+                    blackhole ^= benchmark.invoke();
+                }
+                measured += System.nanoTime() - start;
+                operations += BATCH;
+            } while (System.nanoTime() < end);
+        }
+        return (double) measured / operations;
+    }
+
+    static void writeJson(List<Result> results, Writer out)
+            throws IOException {
+        out.write("[\n");
+        for (int r = 0; r < results.size(); r++) {
+            Result result = results.get(r);
+            Benchmark benchmark = result.benchmark;
+            GameConfig config = benchmark.getConfig();
+            out.write("  {\n");
+            out.write("    \"benchmark\" : \"" + benchmark.getName() + "\",\n");
+            out.write("    \"mode\" : \"avgt\",\n");
+            out.write("    \"params\" : {\n");
+            out.write("      \"board\" : \"" + config.getSlots() + "x"
+                    + config.getColors() + "\"");
+            String parameter = benchmark.getParameter();
+            if (parameter != null) {
+                int split = parameter.indexOf('=');
+                out.write(",\n      \"" + parameter.substring(0, split)
+                        + "\" : \"" + parameter.substring(split + 1) + "\"");
+            }
+            out.write("\n    },\n");
+            out.write("    \"primaryMetric\" : {\n");
+            out.write("      \"score\" : " + number(result.mean()) + ",\n");
+            out.write("      \"scoreError\" : " + number(result.error())
+                    + ",\n");
+            out.write("      \"scoreUnit\" : \"ns/op\",\n");
+            out.write("      \"rawData\" : [ [ ");
+            for (int i = 0; i < result.nanosPerOp.length; i++) {
+                out.write((i > 0 ? ", " : "") + number(result.nanosPerOp[i]));
+            }
+            out.write(" ] ]\n");
+            out.write("    }\n");
+            out.write(r + 1 < results.size() ? "  },\n" : "  }\n");
+        }
+        out.write("]\n");
+    }
+
+    private static String number(double value) {
+        return Double.isNaN(value) ? "\"NaN\""
+                : String.format(Locale.ROOT, "%.3f", value);
+    }
+
+    private static GameConfig parseBoard(String board) {
+        String[] dimensions = board.split("x");
+        // the number of moves does not matter for the benchmarks
+        return new GameConfig(Integer.parseInt(dimensions[0]),
+                Integer.parseInt(dimensions[1]), 20);
+    }
+
+    /**
+     * Runs the benchmarks.
+     *
+     * @param args The options, see the class description.
+     * @throws IOException if the result file cannot be written.
+     */
+    public static void main(String[] args) throws IOException {
+        BenchmarkRunner runner = new BenchmarkRunner();
+        String boards = "4x6";
+        String filter = "";
+        String output = null;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "-b":
+                    boards = args[i + 1];
+                    break;
+                case "-f":
+                    filter = args[i + 1];
+                    break;
+                case "-wi":
+                    runner.warmupIterations = Integer.parseInt(args[i + 1]);
+                    break;
+                case "-i":
+                    runner.iterations = Integer.parseInt(args[i + 1]);
+                    break;
+                case "-t":
+                    runner.iterationNanos =
+                            Long.parseLong(args[i + 1]) * 1_000_000L;
+                    break;
+                case "-o":
+                    output = args[i + 1];
+                    break;
+                default:
+                    throw new IllegalArgumentException("unknown option "
+                            + args[i]);
+            }
+        }
+        List<Result> results = new ArrayList<>();
+        for (String board : boards.split(",")) {
+            for (Benchmark benchmark
+                    : ModelBenchmarks.create(parseBoard(board))) {
+                if (!benchmark.getName().contains(filter)) {
+                    continue;
+                }
+                Result result = runner.run(benchmark);
+                results.add(result);
+                System.out.println(String.format(Locale.ROOT,
+                        "%-26s %-5s %-18s %14.1f +- %10.1f ns/op",
+                        benchmark.getName(), board,
+                        benchmark.getParameter() == null ? ""
+                                : benchmark.getParameter(),
+                        result.mean(), result.error()));
+            }
+        }
+        if (output != null) {
+            try (Writer out = Files.newBufferedWriter(Paths.get(output),
+                    StandardCharsets.UTF_8)) {
+                writeJson(results, out);
+            }
+        }
+        // keeps the sink alive
+        if (runner.blackhole == 42) {
+            System.out.println();
+        }
+    }
+}
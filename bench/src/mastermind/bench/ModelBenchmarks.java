@@ -0,0 +1,267 @@
+package mastermind.bench;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import mastermind.model.ColorCode;
+import mastermind.model.Game;
+import mastermind.model.GameConfig;
+import mastermind.model.GuessStrategy;
+import mastermind.model.Rating;
+import mastermind.model.ScoringBackend;
+
+/**
+ * The benchmarks of the model hot paths.
+ */
+final class ModelBenchmarks {
+
+    // number of precomputed operands, a power of two
+    private static final int OPERANDS = 1 << 12;
+
+    private static final String[] STRATEGIES =
+            {"first", "random", "minimax", "entropy"};
+
+    private static final int[] EVAL_MOVES = {0, 1, 2};
+
+    private static final String[] BACKENDS =
+            {ScoringBackend.SCALAR, ScoringBackend.VECTOR};
+
+    private ModelBenchmarks() {}
+
+    /**
+     * Creates all benchmarks for a board.
+     *
+     * @param config The board configuration.
+     * @return The benchmarks.
+     */
+    static List<Benchmark> create(GameConfig config) {
+        List<Benchmark> benchmarks = new ArrayList<>();
+        benchmarks.add(new Compare(config));
+        benchmarks.add(new WhiteNumber(config));
+        benchmarks.add(new RatingEquals(config));
+        for (String backend : BACKENDS) {
+            // the vector backend falls back to the scalar one if unavailable
+            if (ScoringBackend.forName(backend).getName().equals(backend)) {
+                benchmarks.add(new Score(config, backend));
+            }
+        }
+        benchmarks.add(new NewGame(config));
+        for (int moves : EVAL_MOVES) {
+            benchmarks.add(new Eval(config, moves));
+        }
+        for (String strategy : STRATEGIES) {
+            benchmarks.add(new MachineMove(config, strategy));
+        }
+        return benchmarks;
+    }
+
+    private static ColorCode[] randomCodes(GameConfig config, Random random) {
+        ColorCode[] codes = new ColorCode[OPERANDS];
+        for (int i = 0; i < codes.length; i++) {
+            codes[i] = ColorCode.fromOrdinal(config,
+                    random.nextInt(config.getNumberOfCodes()));
+        }
+        return codes;
+    }
+
+    private static final class Compare extends Benchmark {
+        private ColorCode[] codes;
+        private int next;
+
+        Compare(GameConfig config) {
+            super("ColorCode.compare", null, config);
+        }
+
+        @Override
+        protected void setUp() {
+            codes = randomCodes(config, new Random(1));
+        }
+
+        @Override
+        protected int invoke() {
+            int i = next++ & (OPERANDS - 1);
+            return codes[i].compare(codes[(i + 1) & (OPERANDS - 1)])
+                    .ordinal();
+        }
+    }
+
+    private static final class WhiteNumber extends Benchmark {
+        private ColorCode[] codes;
+        private int next;
+
+        WhiteNumber(GameConfig config) {
+            super("ColorCode.getWhiteNumber", null, config);
+        }
+
+        @Override
+        protected void setUp() {
+            codes = randomCodes(config, new Random(2));
+        }
+
+        @Override
+        protected int invoke() {
+            int i = next++ & (OPERANDS - 1);
+            return codes[i].getWhiteNumber(codes[i],
+                    codes[(i + 1) & (OPERANDS - 1)]);
+        }
+    }
+
+    private static final class RatingEquals extends Benchmark {
+        private Rating[] ratings;
+        private int next;
+
+        RatingEquals(GameConfig config) {
+            super("Rating.equals", null, config);
+        }
+
+        @Override
+        protected void setUp() {
+            Random random = new Random(3);
+            ratings = new Rating[OPERANDS];
+            for (int i = 0; i < ratings.length; i++) {
+                ratings[i] = Rating.fromOrdinal(
+                        random.nextInt(config.getNumberOfRatings()));
+            }
+        }
+
+        @Override
+        protected int invoke() {
+            int i = next++ & (OPERANDS - 1);
+            return ratings[i].equals(ratings[(i + 1) & (OPERANDS - 1)])
+                    ? 1 : 0;
+        }
+    }
+
+    /**
+     * Scores one guess against {@link #OPERANDS} secrets with a backend.
+     */
+    private static final class Score extends Benchmark {
+        private final String backendName;
+        private ScoringBackend backend;
+        private int[] secrets;
+        private int[] ratings;
+        private int next;
+
+        Score(GameConfig config, String backendName) {
+            super("ScoringBackend.score", "backend=" + backendName, config);
+            this.backendName = backendName;
+        }
+
+        @Override
+        protected void setUp() {
+            backend = ScoringBackend.forName(backendName);
+            ColorCode[] codes = randomCodes(config, new Random(5));
+            secrets = new int[codes.length];
+            for (int i = 0; i < codes.length; i++) {
+                secrets[i] = codes[i].toPacked();
+            }
+            ratings = new int[OPERANDS];
+        }
+
+        @Override
+        protected int invoke() {
+            int i = next++ & (OPERANDS - 1);
+            backend.score(config, secrets[i], secrets, 0, OPERANDS, ratings);
+            return ratings[i];
+        }
+    }
+
+    private static final class NewGame extends Benchmark {
+        private GuessStrategy strategy;
+
+        NewGame(GameConfig config) {
+            super("Game.new", null, config);
+        }
+
+        @Override
+        protected void setUp() {
+            strategy = GuessStrategy.forName("first");
+        }
+
+        @Override
+        protected int invoke() {
+            return new Game(config, true, strategy).getMoveCount();
+        }
+    }
+
+    /**
+     * Evaluates the rating of the guess after {@code moves} rated guesses of
+     * the first consistent strategy, i.e. on a shrinking candidate set.
+     */
+    private static final class Eval extends Benchmark {
+        private final int moves;
+        private final Random random = new Random(4);
+        private GuessStrategy strategy;
+        private Game game;
+        private Rating rating;
+
+        Eval(GameConfig config, int moves) {
+            super("Game.eval", "moves=" + moves, config);
+            this.moves = moves;
+        }
+
+        @Override
+        protected void setUp() {
+            strategy = GuessStrategy.forName("first");
+        }
+
+        @Override
+        protected boolean isPreparedPerInvocation() {
+            return true;
+        }
+
+        @Override
+        protected void prepare() {
+            ColorCode secret = ColorCode.fromOrdinal(config,
+                    random.nextInt(config.getNumberOfCodes()));
+            game = new Game(config, true, strategy);
+            rating = secret.compare(game.machineMove());
+            for (int i = 0; i < moves
+                    && rating.getBlack() < config.getSlots(); i++) {
+                game.eval(rating);
+                rating = secret.compare(game.machineMove());
+            }
+        }
+
+        @Override
+        protected int invoke() {
+            game.eval(rating);
+            return game.getMoveCount();
+        }
+    }
+
+    /**
+     * Computes the first guess of a game with a strategy.
+     */
+    private static final class MachineMove extends Benchmark {
+        private final String strategyName;
+        private GuessStrategy strategy;
+        private Game game;
+
+        MachineMove(GameConfig config, String strategyName) {
+            super("Game.machineMove", "strategy=" + strategyName, config);
+            this.strategyName = strategyName;
+        }
+
+        @Override
+        protected void setUp() {
+            strategy = GuessStrategy.forName(strategyName);
+        }
+
+        @Override
+        protected boolean isPreparedPerInvocation() {
+            return true;
+        }
+
+        @Override
+        protected void prepare() {
+            game = new Game(config, true, strategy);
+        }
+
+        @Override
+        protected int invoke() {
+            return game.machineMove().toPacked();
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package mastermind.simd;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+import mastermind.model.ColorCode;
+import mastermind.model.GameConfig;
+import mastermind.model.ScoringBackend;
+
+/**
+ * Scores as many secrets at once as there are int lanes in a vector register.
+ *
+ * Both spikes are counted by the trick of
+ * {@link ColorCode#countBlack(GameConfig, int, int)}: xor two codes, fold
+ * each slot into its lowest bit and count the slots which differ. Against
+ * the guess this gives the black spikes; against a code holding one color in
+ * every slot it gives how often the secret holds that color. The common
+ * colors are the sum over the colors of the guess of the smaller count, and
+ * the white spikes are the common colors minus the black spikes. Every step
+ * is a lane-wise operation, there is no branch per secret.
+ *
+ * Needs the JVM option {@code --add-modules jdk.incubator.vector}, see
+ * {@link ScoringBackend#forName(String)}.
+ */
+public final class VectorScoringBackend implements ScoringBackend {
+
+    private static final VectorSpecies<Integer> SPECIES =
+            IntVector.SPECIES_PREFERRED;
+
+    private static final int SLOT_MASK = (1 << ColorCode.BITS_PER_SLOT) - 1;
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public void score(GameConfig config, int guess, int[] secrets, int from,
+            int to, int[] ratings) {
+        int slots = config.getSlots();
+        int lowBits = 0;
+        for (int i = 0; i < slots; i++) {
+            lowBits |= 1 << (i * ColorCode.BITS_PER_SLOT);
+        }
+        // the distinct colors of the guess, repeated in every slot, and how
+        // often the guess holds them
+        int[] colorCodes = new int[slots];
+        int[] colorCounts = new int[slots];
+        int distinct = 0;
+        for (int i = 0; i < slots; i++) {
+            int color = (guess >>> (i * ColorCode.BITS_PER_SLOT)) & SLOT_MASK;
+            int code = color * lowBits;
+            int j = 0;
+            while (j < distinct && colorCodes[j] != code) {
+                j++;
+            }
+            if (j == distinct) {
+                colorCodes[distinct++] = code;
+            }
+            colorCounts[j]++;
+        }
+
+        IntVector guessVector = IntVector.broadcast(SPECIES, guess);
+        int upper = from + SPECIES.loopBound(to - from);
+        int i = from;
+        for (; i < upper; i += SPECIES.length()) {
+            IntVector secret = IntVector.fromArray(SPECIES, secrets, i);
+            IntVector black = matches(secret, guessVector, lowBits, slots);
+            IntVector common = IntVector.zero(SPECIES);
+            for (int c = 0; c < distinct; c++) {
+                common = common.add(matches(secret,
+                        IntVector.broadcast(SPECIES, colorCodes[c]), lowBits,
+                        slots).min(colorCounts[c]));
+            }
+            // Rating.ordinalOf(black, white) with black + white = common
+            common.mul(common.add(1)).lanewise(VectorOperators.LSHR, 1)
+                    .add(black).intoArray(ratings, i);
+        }
+        for (; i < to; i++) {
+            ratings[i] = ColorCode.score(config, guess, secrets[i]);
+        }
+    }
+
+    // the number of slots holding the same color in both codes
+    private static IntVector matches(IntVector first, IntVector second,
+            int lowBits, int slots) {
+        IntVector diff = first.lanewise(VectorOperators.XOR, second);
+        diff = diff.lanewise(VectorOperators.OR,
+                diff.lanewise(VectorOperators.LSHR, 2));
+        diff = diff.lanewise(VectorOperators.OR,
+                diff.lanewise(VectorOperators.LSHR, 1));
+        return diff.lanewise(VectorOperators.AND, lowBits)
+                .lanewise(VectorOperators.BIT_COUNT).neg().add(slots);
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public String getName() {
+        return VECTOR;
+    }
+}
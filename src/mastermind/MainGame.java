@@ -1,7 +1,13 @@
 package mastermind;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
 import mastermind.controller.GameController;
+import mastermind.log.GameLog;
+import mastermind.metrics.GameMetrics;
 import mastermind.model.Game;
+import mastermind.model.GameConfig;
 import mastermind.view.MainWindow;
 
 public class MainGame {
@@ -10,10 +16,24 @@ public class MainGame {
 	
 	/**
 	 * Main function to be executed to run the game. 
+	 * The board is taken from the system properties, see {@link GameConfig#fromSystemProperties()}.
+	 * Finished games are logged if {@link GameLog#PROPERTY} names a directory.
+	 * The {@link GameMetrics} are registered as MBean.
 	 * @param args arguments string
 	 */
 	public static void main(String[] args) {		
-		GameController game = new GameController(new MainWindow(), new Game());	
+		GameConfig config = GameConfig.fromSystemProperties();
+		GameMetrics.register();
+		GameLog log = GameLog.fromSystemProperty(config);
+		if (log != null)
+			Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+				try {
+					log.close();
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			}));
+		GameController game = new GameController(new MainWindow(config), new Game(config, false), log);	
 		game.run();
 	}
 }
@@ -2,30 +2,70 @@ package mastermind.controller;
 
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 import javax.swing.JOptionPane;
+import javax.swing.SwingUtilities;
 
 import mastermind.model.ColorCode;
 import mastermind.model.Game;
+import mastermind.model.GameConfig;
+import mastermind.model.GameListener;
+import mastermind.model.GuessStrategy;
+import mastermind.model.HintEngine;
+import mastermind.model.InconsistentRatingsException;
 import mastermind.model.MastermindGame;
 import mastermind.model.Rating;
 import mastermind.view.MainWindow;
 
 /**
  * Game controller class that binds logic and UI.
+ * The model work of a move runs on a background thread, one move at a time,
+ * while the window shows it is busy. The results are shown on the event
+ * dispatch thread.
  */
 public class GameController {
 	private MastermindGame gameLogic;
 	private MainWindow gameWindow;
+	private final GameConfig config;
+	private final HintEngine hints;
+	private final GameListener listener;
+	private final ExecutorService solver = Executors.newSingleThreadExecutor(task -> {
+		Thread thread = new Thread(task, "solver");
+		thread.setDaemon(true);
+		return thread;
+	});
 	
 	/**
 	 * Game Controller that binds game UI and logic.
+	 * New games are played on the board of the given game logic.
+	 * While the human is guessing, hints are shown in the status label
+	 * unless turned off by {@link HintEngine#PROPERTY}.
 	 * @param gameWindow game user interface
 	 * @param gameLogic game logic component
 	 */
 	public GameController(MainWindow gameWindow, MastermindGame gameLogic) {
+		this(gameWindow, gameLogic, null);
+	}
+	
+	/**
+	 * Game Controller that binds game UI and logic and reports finished games.
+	 * @param gameWindow game user interface
+	 * @param gameLogic game logic component
+	 * @param listener receiver of the finished games, e.g. a game log, or null
+	 */
+	public GameController(MainWindow gameWindow, MastermindGame gameLogic, GameListener listener) {
 		this.gameWindow = gameWindow;
 		this.gameLogic = gameLogic;		
+		this.config = gameLogic.getConfig();
+		this.listener = listener;
+		if (Boolean.parseBoolean(System.getProperty(HintEngine.PROPERTY, "true")))
+			hints = new HintEngine(GuessStrategy.fromSystemProperty(), this::hintReady);
+		else
+			hints = null;
 	}
 	
 	/**
@@ -42,11 +82,111 @@ public class GameController {
 	
 	private void newGame(boolean machineGuess) {
 		gameWindow.clearProgress();	
-		gameLogic = new Game(machineGuess);	
+		Game game = new Game(config, machineGuess);
+		game.setGameListener(listener);
+		gameLogic = game;
     	
-    	if (gameLogic.isMachineGuessing())
-    		makeMachineGuess();
-    	updateEditRow();
+    	if (gameLogic.isMachineGuessing()) {
+    		runInBackground(gameLogic::machineMove, firstGuess -> {
+    			showMachineGuess(firstGuess);
+    			updateEditRow();
+    		});
+    	} else {
+    		// a move of the previous game may still be running, its result is dropped
+    		gameWindow.setBusy(false);
+    		updateEditRow();
+    	}
+    	updateHints();
+	}
+	
+	/**
+	 * Runs model work of the current game on the solver thread. The window is
+	 * busy until the result is shown by {@code done} on the event dispatch thread.
+	 * Results for a game replaced meanwhile are dropped.
+	 */
+	private <T> void runInBackground(Supplier<T> work, Consumer<T> done) {
+		MastermindGame game = gameLogic;
+		gameWindow.setBusy(true);
+		solver.execute(() -> {
+			try {
+				T result = work.get();
+				SwingUtilities.invokeLater(() -> {
+					if (game == gameLogic) {
+						gameWindow.setBusy(false);
+						done.accept(result);
+					}
+				});
+			} catch (InconsistentRatingsException e) {
+				// the rating was not applied, so it can be corrected
+				SwingUtilities.invokeLater(() -> {
+					if (game == gameLogic) {
+						gameWindow.setBusy(false);
+						JOptionPane.showMessageDialog(gameWindow.getMainFrame(), conflictMessage(e));
+					}
+				});
+			} catch (RuntimeException e) {
+				SwingUtilities.invokeLater(() -> {
+					if (game == gameLogic) {
+						gameWindow.setBusy(false);
+						JOptionPane.showMessageDialog(gameWindow.getMainFrame(), e.getMessage(),
+								"Error", JOptionPane.ERROR_MESSAGE);
+					}
+				});
+			} catch (Error e) {
+				// e.g. out of memory: the window is freed, the error still reaches
+				// the uncaught exception handler of the solver thread
+				SwingUtilities.invokeLater(() -> {
+					if (game == gameLogic) {
+						gameWindow.setBusy(false);
+						JOptionPane.showMessageDialog(gameWindow.getMainFrame(), e.toString(),
+								"Error", JOptionPane.ERROR_MESSAGE);
+					}
+				});
+				throw e;
+			}
+		});
+	}
+	
+	private static String conflictMessage(InconsistentRatingsException e) {
+		int[] moves = e.getMoves();
+		if (moves.length == 1)
+			return "You have been cheating! The rating of move " + (moves[0] + 1)
+					+ " is impossible. Please correct the last rating.";
+		StringBuilder text = new StringBuilder("You have been cheating! The ratings of moves");
+		for (int i = 0; i < moves.length; i++) {
+			if (i > 0)
+				text.append(i == moves.length - 1 ? " and" : ",");
+			text.append(' ').append(moves[i] + 1);
+		}
+		return text.append(" contradict each other. Please correct the last rating.").toString();
+	}
+	
+	private void updateHints() {
+		if (hints == null)
+			return;
+		if (gameLogic.isMachineGuessing() || isGameOver())
+			hints.cancel();
+		else
+			hints.update((Game) gameLogic);
+	}
+	
+	private boolean isGameOver() {
+		int moves = gameLogic.getMoveCount();
+		return moves == config.getMaxMoves()
+				|| moves > 0 && gameLogic.getRating(moves - 1).getBlack() == config.getSlots();
+	}
+	
+	// called on the thread of the hint engine
+	private void hintReady(HintEngine.Hint hint) {
+		SwingUtilities.invokeLater(() -> {
+			// drop hints for a game or move which is already gone
+			if (gameLogic.isMachineGuessing() || hint.getMoveCount() != gameLogic.getMoveCount())
+				return;
+			String text = "Your turn to guess. " + hint.getCandidateCount() + " codes left";
+			if (hint.getGuess() != null)
+				text += ", hint: " + hint.getGuess();
+			gameWindow.setStatusLblText(text);
+		});
 	}
 	
 	private void updateEditRow() {
@@ -70,18 +210,23 @@ public class GameController {
 		ActionListener move = new ActionListener() {
 		    public void actionPerformed(ActionEvent e) {
 		    	if (gameLogic.isMachineGuessing()) {
-		    		Rating userRating = new Rating(gameWindow.getBlackInput(), gameWindow.getWhiteInput());
-		    		gameLogic.eval(userRating);
-		    		if (userRating.getBlack() == MastermindGame.NUMBER_SLOTS) //check if machine already won 
-			    		JOptionPane.showMessageDialog(gameWindow.getMainFrame(), "Wow, Machine won!");
-		    		else 		    		
-			    		makeMachineGuess();
-		    	
+		    		Rating userRating = Rating.valueOf(gameWindow.getBlackInput(), gameWindow.getWhiteInput());
+		    		boolean machineWon = userRating.getBlack() == config.getSlots(); //check if machine already won
+		    		MastermindGame game = gameLogic;
+		    		runInBackground(() -> {
+		    			game.eval(userRating);
+		    			return machineWon ? null : game.machineMove();
+		    		}, machineGuess -> {
+		    			if (machineWon)
+		    				JOptionPane.showMessageDialog(gameWindow.getMainFrame(), "Wow, Machine won!");
+		    			else
+		    				showMachineGuess(machineGuess);
+		    			updateEditRow();
+		    		});
 		    	} else { //when user guessing colors 
-		    		if (isColorInputValid()) 
+		    		if (isColorInputValid())
 		    			makeHumanMove();
 		    	}
-		    	updateEditRow();
 		    }          
 		 };
 		 gameWindow.addMoveAction(move); 		
@@ -96,19 +241,27 @@ public class GameController {
 	}	
 	
 	private void makeHumanMove() {
-		Rating moveRating = gameLogic.humanMove(new ColorCode(gameWindow.getUserColorInput()));
+		ColorCode move = new ColorCode(config, gameWindow.getUserColorInput());
+		MastermindGame game = gameLogic;
+		runInBackground(() -> game.humanMove(move), moveRating -> {
+			showHumanMove(moveRating);
+			updateEditRow();
+			updateHints();
+		});
+	}
+	
+	private void showHumanMove(Rating moveRating) {
     	gameWindow.setEvalResult(gameLogic.getMoveCount()-1, moveRating.getBlack(), moveRating.getWhite());
-    	if (moveRating.getBlack() == MastermindGame.NUMBER_SLOTS) { //check if user won
+    	if (moveRating.getBlack() == config.getSlots()) { //check if user won
     		revealSecret(); 
     		JOptionPane.showMessageDialog(gameWindow.getMainFrame(), "You won!");				    		
-    	} else if (gameLogic.getMoveCount() == MastermindGame.MAX_MOVES) { //if max number of moves reached
+    	} else if (gameLogic.getMoveCount() == config.getMaxMoves()) { //if max number of moves reached
     		revealSecret();
     		JOptionPane.showMessageDialog(gameWindow.getMainFrame(), "Game over: No more moves");				    		
     	}    	
 	}
 	
-	private void makeMachineGuess() {		
-		ColorCode machineGuess = gameLogic.machineMove();
+	private void showMachineGuess(ColorCode machineGuess) {		
 		if (machineGuess == null)
 			JOptionPane.showMessageDialog(gameWindow.getMainFrame(), "You have been cheating!");
 		else	
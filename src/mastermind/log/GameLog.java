@@ -0,0 +1,271 @@
+package mastermind.log;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+import mastermind.model.GameConfig;
+import mastermind.model.GameListener;
+import mastermind.model.MastermindGame;
+
+/**
+ * Append-only binary log of finished games. Each game is one record of fixed
+ * width, holding the secret and the moves with their ratings as packed codes
+ * and rating ordinals, see {@link GameRecord}. The records are appended to
+ * segment files of at most {@link #SEGMENT_SIZE} bytes in a directory, read
+ * back by {@link GameLogReader}.
+ *
+ * A finished game is encoded on the thread playing it and handed to a writer
+ * thread, which appends the records queued meanwhile in one write. The game
+ * thread never waits: if the queue is full, the game is dropped and counted,
+ * see {@link #getDroppedCount()}.
+ *
+ * Segment format: the int {@code MAGIC}, the byte {@code VERSION}, the slots,
+ * colors and maximum moves of the board as bytes and the record width as int,
+ * followed by the records. All numbers are big endian.
+ */
+public final class GameLog implements GameListener, AutoCloseable {
+
+    /**
+     * System property holding the directory of the log opened by
+     * {@link #fromSystemProperty(GameConfig)}.
+     */
+    public static final String PROPERTY = "mastermind.log";
+
+    /**
+     * Maximum size of a segment file in bytes.
+     */
+    public static final long SEGMENT_SIZE = 64L << 20;
+
+    static final int MAGIC = 0x4D4D474C;
+    static final byte VERSION = 1;
+    static final int HEADER_SIZE = 12;
+    static final String PREFIX = "games-";
+    static final String SUFFIX = ".log";
+
+    private static final int QUEUE_CAPACITY = 1 << 16;
+    private static final int BATCH_SIZE = 1 << 10;
+    // queued by close() to stop the writer
+    private static final byte[] END = new byte[0];
+
+    private final GameConfig config;
+    private final Path directory;
+    private final int recordSize;
+    private final BlockingQueue<byte[]> queue =
+            new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final AtomicLong dropped = new AtomicLong();
+    private final Thread writer;
+    private volatile boolean closed;
+    // used by the writer thread only
+    private FileChannel channel;
+    private int segment;
+    private long segmentBytes;
+    private volatile IOException failure;
+
+    /**
+     * Opens a log for the games of a board. The games are appended to a new
+     * segment, numbered after the segments already in the directory.
+     *
+     * @param directory The directory of the segments, created if missing.
+     * @param config The board of the games.
+     * @throws IOException if the directory or segment cannot be created.
+     * @throws IllegalArgumentException if the board has more than 255 moves.
+     */
+    public GameLog(Path directory, GameConfig config) throws IOException {
+        if (config.getMaxMoves() > 0xFF) {
+            throw new IllegalArgumentException("too many moves to log: "
+                    + config.getMaxMoves());
+        }
+        this.config = config;
+        this.directory = directory;
+        recordSize = GameRecord.size(config.getMaxMoves());
+        Files.createDirectories(directory);
+        for (Path path : segments(directory)) {
+            segment = Math.max(segment, number(path) + 1);
+        }
+        openSegment();
+        writer = new Thread(this::write, "game-log");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Opens the log in the directory named by the system property
+     * {@value #PROPERTY}.
+     *
+     * @param config The board of the games.
+     * @return The log or {@code null} if the property is not set.
+     * @throws UncheckedIOException if the log cannot be opened.
+     */
+    public static GameLog fromSystemProperty(GameConfig config) {
+        String path = System.getProperty(PROPERTY);
+        if (path == null) {
+            return null;
+        }
+        try {
+            return new GameLog(Paths.get(path), config);
+        } catch (IOException e) {
+            throw new UncheckedIOException("cannot open game log " + path, e);
+        }
+    }
+
+    /**
+     * Appends a finished game. Returns at once, the game is written by the
+     * writer thread. Games of a closed or failed log are ignored.
+     *
+     * @param game The game, on the board of this log.
+     * @throws IllegalArgumentException if the game is on another board.
+     */
+    @Override
+    public void gameOver(MastermindGame game) {
+        if (!game.getConfig().equals(config)) {
+            throw new IllegalArgumentException("game not on the board of the"
+                    + " log");
+        }
+        if (closed || failure != null) {
+            return;
+        }
+        if (!queue.offer(GameRecord.encode(game, recordSize))) {
+            dropped.incrementAndGet();
+        }
+    }
+
+    /**
+     * Gets the number of games dropped because the writer fell behind or
+     * failed.
+     *
+     * @return The number of dropped games.
+     */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    /**
+     * Writes the queued games and closes the log.
+     *
+     * @throws IOException if writing failed, possibly for an earlier game.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            queue.put(END);
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Lists the segment files of a log in the order they were written.
+     *
+     * @param directory The directory of the log.
+     * @return The segment files.
+     * @throws IOException if the directory cannot be read.
+     */
+    static List<Path> segments(Path directory) throws IOException {
+        List<Path> segments = new ArrayList<>();
+        try (DirectoryStream<Path> paths = Files.newDirectoryStream(directory,
+                PREFIX + "*" + SUFFIX)) {
+            for (Path path : paths) {
+                if (number(path) >= 0) {
+                    segments.add(path);
+                }
+            }
+        }
+        segments.sort((a, b) -> Integer.compare(number(a), number(b)));
+        return segments;
+    }
+
+    // the number of a segment file, -1 if the name is not one of a segment
+    private static int number(Path path) {
+        String name = path.getFileName().toString();
+        try {
+            return Integer.parseInt(name.substring(PREFIX.length(),
+                    name.length() - SUFFIX.length()));
+        } catch (NumberFormatException | IndexOutOfBoundsException e) {
+            return -1;
+        }
+    }
+
+    private void write() {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(BATCH_SIZE * recordSize);
+        List<byte[]> batch = new ArrayList<>(BATCH_SIZE);
+        boolean end = false;
+        try {
+            while (!end) {
+                batch.add(queue.take());
+                queue.drainTo(batch, BATCH_SIZE - 1);
+                for (byte[] record : batch) {
+                    if (record == END) {
+                        end = true;
+                        break;
+                    }
+                    if (segmentBytes + buffer.position() + recordSize
+                            > SEGMENT_SIZE) {
+                        flush(buffer);
+                        channel.close();
+                        openSegment();
+                    }
+                    buffer.put(record);
+                }
+                flush(buffer);
+                batch.clear();
+            }
+            channel.force(false);
+        } catch (IOException e) {
+            failure = e;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                if (failure == null) {
+                    failure = e;
+                }
+            }
+            // the games queued after a failure are lost
+            dropped.addAndGet(queue.size());
+            queue.clear();
+        }
+    }
+
+    private void flush(ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            segmentBytes += channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private void openSegment() throws IOException {
+        Path path = directory.resolve(String.format("%s%08d%s", PREFIX,
+                segment++, SUFFIX));
+        channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.WRITE);
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC).put(VERSION).put((byte) config.getSlots())
+                .put((byte) config.getColors())
+                .put((byte) config.getMaxMoves()).putInt(recordSize);
+        segmentBytes = 0;
+        flush(header);
+    }
+}
@@ -0,0 +1,130 @@
+package mastermind.log;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import mastermind.model.GameConfig;
+
+/**
+ * Reads the games of a {@link GameLog}. The segments are mapped into memory
+ * and the games are visited through a single {@link GameRecord} moved from
+ * record to record, so no game is copied or turned into objects.
+ *
+ * The segments are mapped when the reader is created. A log still being
+ * written can be read; games appended later and a record cut off by a crash
+ * are not visited.
+ */
+public final class GameLogReader {
+
+    private final GameConfig config;
+    private final List<MappedByteBuffer> segments = new ArrayList<>();
+    private final int recordSize;
+    private final long games;
+
+    /**
+     * Receives the games of a log.
+     */
+    @FunctionalInterface
+    public interface Visitor {
+
+        /**
+         * Called for each game. The record is only valid during the call.
+         *
+         * @param record The game.
+         */
+        void visit(GameRecord record);
+    }
+
+    /**
+     * Maps the segments of a log.
+     *
+     * @param directory The directory of the log.
+     * @throws IOException if a segment cannot be read, is not one of a game
+     *         log or the segments differ in their board.
+     */
+    public GameLogReader(Path directory) throws IOException {
+        GameConfig board = null;
+        int size = 0;
+        long count = 0;
+        for (Path path : GameLog.segments(directory)) {
+            MappedByteBuffer segment;
+            try (FileChannel channel = FileChannel.open(path,
+                    StandardOpenOption.READ)) {
+                // the mapping stays valid after the channel is closed
+                segment = channel.map(FileChannel.MapMode.READ_ONLY, 0,
+                        channel.size());
+            }
+            if (segment.limit() < GameLog.HEADER_SIZE
+                    || segment.getInt(0) != GameLog.MAGIC
+                    || segment.get(4) != GameLog.VERSION) {
+                throw new IOException("not a game log segment: " + path);
+            }
+            GameConfig segmentBoard;
+            try {
+                segmentBoard = new GameConfig(segment.get(5), segment.get(6),
+                        segment.get(7) & 0xFF);
+            } catch (IllegalArgumentException e) {
+                throw new IOException("invalid board in " + path, e);
+            }
+            if (board == null) {
+                board = segmentBoard;
+                size = segment.getInt(8);
+            } else if (!board.equals(segmentBoard)) {
+                throw new IOException("board of " + path
+                        + " differs from the earlier segments");
+            }
+            if (size != GameRecord.size(board.getMaxMoves())) {
+                throw new IOException("invalid record size in " + path);
+            }
+            segments.add(segment);
+            count += (segment.limit() - GameLog.HEADER_SIZE) / size;
+        }
+        if (board == null) {
+            throw new IOException("no game log in " + directory);
+        }
+        config = board;
+        recordSize = size;
+        games = count;
+    }
+
+    /**
+     * Gets the board of the games.
+     *
+     * @return The board configuration.
+     */
+    public GameConfig getConfig() {
+        return config;
+    }
+
+    /**
+     * Gets the number of games in the log.
+     *
+     * @return The number of games.
+     */
+    public long getGameCount() {
+        return games;
+    }
+
+    /**
+     * Visits all games in the order they were written.
+     *
+     * @param visitor The receiver of the games.
+     */
+    public void forEach(Visitor visitor) {
+        GameRecord record = new GameRecord(config);
+        for (ByteBuffer segment : segments) {
+            int end = segment.limit() - recordSize;
+            for (int offset = GameLog.HEADER_SIZE; offset <= end;
+                    offset += recordSize) {
+                record.moveTo(segment, offset);
+                visitor.visit(record);
+            }
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package mastermind.log;
+
+import java.nio.ByteBuffer;
+
+import mastermind.model.ColorCode;
+import mastermind.model.GameConfig;
+import mastermind.model.MastermindGame;
+import mastermind.model.Rating;
+
+/**
+ * View of one game in a {@link GameLog}. A record is not a copy: it reads the
+ * fields straight from the mapped segment, and {@link GameLogReader} moves
+ * the same record from game to game.
+ *
+ * Record format: the time the game ended in milliseconds since the epoch as
+ * long, the packed secret as int, the flags {@link #MACHINE_GUESSING} and
+ * {@link #SOLVED} and the number of moves as bytes, then the packed guesses
+ * as ints and the rating ordinals as bytes, both padded to the maximum
+ * number of moves of the board.
+ */
+public final class GameRecord {
+
+    /**
+     * Flag set if the machine was guessing.
+     */
+    public static final int MACHINE_GUESSING = 1;
+
+    /**
+     * Flag set if the secret was found.
+     */
+    public static final int SOLVED = 2;
+
+    private static final int TIME = 0;
+    private static final int SECRET = 8;
+    private static final int FLAGS = 12;
+    private static final int MOVES = 13;
+    private static final int GUESSES = 14;
+
+    private final GameConfig config;
+    private final int ratingsOffset;
+    private ByteBuffer buffer;
+    private int offset;
+
+    GameRecord(GameConfig config) {
+        this.config = config;
+        ratingsOffset = GUESSES + Integer.BYTES * config.getMaxMoves();
+    }
+
+    /**
+     * Gets the width of the records of a board.
+     *
+     * @param maxMoves The maximum number of moves of the board.
+     * @return The record size in bytes.
+     */
+    static int size(int maxMoves) {
+        return GUESSES + (Integer.BYTES + 1) * maxMoves;
+    }
+
+    /**
+     * Encodes a finished game. Only its rated moves are stored, and no more
+     * than the maximum number of moves of the board; a game played on past
+     * that limit keeps its outcome but loses the extra moves.
+     *
+     * @param game The game.
+     * @param size The record size of the board.
+     * @return The record.
+     */
+    static byte[] encode(MastermindGame game, int size) {
+        int slots = game.getConfig().getSlots();
+        int rated = game.getRatingCount();
+        int maxMoves = game.getConfig().getMaxMoves();
+        int moves = Math.min(rated, maxMoves);
+        boolean solved = rated > 0
+                && game.getRating(rated - 1).getBlack() == slots;
+        ByteBuffer record = ByteBuffer.allocate(size);
+        record.putLong(TIME, System.currentTimeMillis())
+                .putInt(SECRET, game.getSecret().toPacked())
+                .put(FLAGS, (byte) ((game.isMachineGuessing()
+                        ? MACHINE_GUESSING : 0) | (solved ? SOLVED : 0)))
+                .put(MOVES, (byte) moves);
+        int ratings = GUESSES + Integer.BYTES * maxMoves;
+        for (int i = 0; i < moves; i++) {
+            record.putInt(GUESSES + Integer.BYTES * i,
+                    game.getColorCode(i).toPacked());
+            record.put(ratings + i, (byte) game.getRating(i).ordinal());
+        }
+        return record.array();
+    }
+
+    // moves this record to the game at the given position
+    void moveTo(ByteBuffer buffer, int offset) {
+        this.buffer = buffer;
+        this.offset = offset;
+    }
+
+    /**
+     * Gets the board of the game.
+     *
+     * @return The board configuration.
+     */
+    public GameConfig getConfig() {
+        return config;
+    }
+
+    /**
+     * Gets the time the game ended.
+     *
+     * @return The time in milliseconds since the epoch.
+     */
+    public long getTime() {
+        return buffer.getLong(offset + TIME);
+    }
+
+    /**
+     * Gets the secret of the game.
+     *
+     * @return The packed secret, see {@link ColorCode#toPacked()}.
+     */
+    public int getSecret() {
+        return buffer.getInt(offset + SECRET);
+    }
+
+    /**
+     * Determines whether the machine was guessing.
+     *
+     * @return {@code true} if the machine was guessing.
+     */
+    public boolean isMachineGuessing() {
+        return (buffer.get(offset + FLAGS) & MACHINE_GUESSING) != 0;
+    }
+
+    /**
+     * Determines whether the secret was found.
+     *
+     * @return {@code true} if the last move was rated all black.
+     */
+    public boolean isSolved() {
+        return (buffer.get(offset + FLAGS) & SOLVED) != 0;
+    }
+
+    /**
+     * Gets the number of moves of the game.
+     *
+     * @return The number of moves.
+     */
+    public int getMoveCount() {
+        return buffer.get(offset + MOVES) & 0xFF;
+    }
+
+    /**
+     * Gets a guess of the game.
+     *
+     * @param moveNo The number of the move, starting at 0.
+     * @return The packed guess, see {@link ColorCode#toPacked()}.
+     */
+    public int getGuess(int moveNo) {
+        return buffer.getInt(offset + GUESSES + Integer.BYTES * moveNo);
+    }
+
+    /**
+     * Gets the rating of a guess of the game.
+     *
+     * @param moveNo The number of the move, starting at 0.
+     * @return The ordinal of the rating, see {@link Rating#ordinal()}.
+     */
+    public int getRating(int moveNo) {
+        return buffer.get(offset + ratingsOffset + moveNo);
+    }
+}
@@ -0,0 +1,320 @@
+package mastermind.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Counters and latency histograms of the games played in this JVM, recorded
+ * by {@link mastermind.model.Game} and exposed as MBean
+ * {@value #OBJECT_NAME} once {@link #register()} is called, e.g. to be
+ * watched with {@code jconsole}. Recording costs a few striped counter
+ * updates per move, so it is always on.
+ */
+public final class GameMetrics implements GameMetricsMBean {
+
+    /**
+     * Name under which the metrics are registered.
+     */
+    public static final String OBJECT_NAME = "mastermind:type=GameMetrics";
+
+    private final LongAdder started = new LongAdder();
+    private final LongAdder won = new LongAdder();
+    private final LongAdder lost = new LongAdder();
+    private final LongAdder cheated = new LongAdder();
+    private final LongAdder ratings = new LongAdder();
+    private final LongAdder candidates = new LongAdder();
+    private volatile long lastCandidates = -1;
+    private volatile String strategy;
+    private final LatencyHistogram humanMoves = new LatencyHistogram();
+    private final LatencyHistogram machineMoves = new LatencyHistogram();
+    private final LatencyHistogram evals = new LatencyHistogram();
+
+    // initialized on first access of METRICS, the JVM guarantees it happens
+    // once
+    private static final class Holder {
+        static final GameMetrics METRICS = new GameMetrics();
+    }
+
+    private GameMetrics() {
+    }
+
+    /**
+     * Returns the metrics of this JVM.
+     *
+     * @return The metrics.
+     */
+    public static GameMetrics getDefault() {
+        return Holder.METRICS;
+    }
+
+    /**
+     * Registers the metrics with the platform MBean server. Further calls
+     * have no effect.
+     *
+     * @throws IllegalStateException if the registration fails.
+     */
+    public static void register() {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(
+                    getDefault(), new ObjectName(OBJECT_NAME));
+        } catch (InstanceAlreadyExistsException e) {
+            // registered before
+        } catch (JMException e) {
+            throw new IllegalStateException("cannot register " + OBJECT_NAME,
+                    e);
+        }
+    }
+
+    /**
+     * Records the start of a game.
+     *
+     * @param strategyName The name of the strategy of the machine guesses.
+     */
+    public void gameStarted(String strategyName) {
+        started.increment();
+        strategy = strategyName;
+    }
+
+    /**
+     * Records a game in which the secret was found.
+     */
+    public void gameWon() {
+        won.increment();
+    }
+
+    /**
+     * Records a game ended by the last move without finding the secret.
+     */
+    public void gameLost() {
+        lost.increment();
+    }
+
+    /**
+     * Records a game in which a rating was rejected because it contradicted
+     * the ratings before.
+     */
+    public void gameCheated() {
+        cheated.increment();
+    }
+
+    /**
+     * Records the number of candidates left after the rating of a machine
+     * guess.
+     *
+     * @param count The number of candidates.
+     */
+    public void candidatesLeft(long count) {
+        ratings.increment();
+        candidates.add(count);
+        lastCandidates = count;
+    }
+
+    /**
+     * Records the time taken to rate a human guess.
+     *
+     * @param nanos The duration in nanoseconds.
+     */
+    public void humanMove(long nanos) {
+        humanMoves.record(nanos);
+    }
+
+    /**
+     * Records the time taken to make a machine guess.
+     *
+     * @param nanos The duration in nanoseconds.
+     */
+    public void machineMove(long nanos) {
+        machineMoves.record(nanos);
+    }
+
+    /**
+     * Records the time taken to apply the rating of a machine guess.
+     *
+     * @param nanos The duration in nanoseconds.
+     */
+    public void eval(long nanos) {
+        evals.record(nanos);
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public long getGamesStarted() {
+        return started.sum();
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public long getGamesWon() {
+        return won.sum();
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public long getGamesLost() {
+        return lost.sum();
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public long getGamesCheated() {
+        return cheated.sum();
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public String getStrategy() {
+        return strategy;
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public long getLastCandidateCount() {
+        return lastCandidates;
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public double getMeanCandidateCount() {
+        long n = ratings.sum();
+        return n == 0 ? 0 : (double) candidates.sum() / n;
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public long getHumanMoveCount() {
+        return humanMoves.getCount();
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public double getHumanMoveMeanMicros() {
+        return humanMoves.getMeanMicros();
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public long getHumanMoveMaxMicros() {
+        return humanMoves.getMaxMicros();
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public long[] getHumanMoveHistogram() {
+        return humanMoves.getBuckets();
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public long getMachineMoveCount() {
+        return machineMoves.getCount();
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public double getMachineMoveMeanMicros() {
+        return machineMoves.getMeanMicros();
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public long getMachineMoveMaxMicros() {
+        return machineMoves.getMaxMicros();
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public long[] getMachineMoveHistogram() {
+        return machineMoves.getBuckets();
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public long getEvalCount() {
+        return evals.getCount();
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public double getEvalMeanMicros() {
+        return evals.getMeanMicros();
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public long getEvalMaxMicros() {
+        return evals.getMaxMicros();
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public long[] getEvalHistogram() {
+        return evals.getBuckets();
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public long[] getHistogramBoundsMicros() {
+        return LatencyHistogram.getBucketBoundsMicros();
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public void reset() {
+        started.reset();
+        won.reset();
+        lost.reset();
+        cheated.reset();
+        ratings.reset();
+        candidates.reset();
+        lastCandidates = -1;
+        humanMoves.reset();
+        machineMoves.reset();
+        evals.reset();
+    }
+}
@@ -0,0 +1,160 @@
+package mastermind.metrics;
+
+/**
+ * Management interface of {@link GameMetrics}. The histograms count the calls
+ * per bucket of {@link #getHistogramBoundsMicros()}.
+ */
+public interface GameMetricsMBean {
+
+    /**
+     * Gets the number of games started, including the games branched off
+     * from another one.
+     *
+     * @return The count.
+     */
+    long getGamesStarted();
+
+    /**
+     * Gets the number of games in which the secret was found.
+     *
+     * @return The count.
+     */
+    long getGamesWon();
+
+    /**
+     * Gets the number of games ended by the last move without finding the
+     * secret.
+     *
+     * @return The count.
+     */
+    long getGamesLost();
+
+    /**
+     * Gets the number of games in which a rating was rejected because it
+     * contradicted the ratings before.
+     *
+     * @return The count.
+     */
+    long getGamesCheated();
+
+    /**
+     * Gets the name of the strategy of the game started last.
+     *
+     * @return The strategy name, {@code null} before the first game.
+     */
+    String getStrategy();
+
+    /**
+     * Gets the number of candidates left after the rating of a machine guess
+     * recorded last.
+     *
+     * @return The candidate count, -1 if unknown.
+     */
+    long getLastCandidateCount();
+
+    /**
+     * Gets the mean number of candidates left after the rating of a machine
+     * guess.
+     *
+     * @return The mean candidate count.
+     */
+    double getMeanCandidateCount();
+
+    /**
+     * Gets the number of human guesses rated.
+     *
+     * @return The count.
+     */
+    long getHumanMoveCount();
+
+    /**
+     * Gets the mean time to rate a human guess.
+     *
+     * @return The mean in microseconds.
+     */
+    double getHumanMoveMeanMicros();
+
+    /**
+     * Gets the longest time to rate a human guess.
+     *
+     * @return The maximum in microseconds.
+     */
+    long getHumanMoveMaxMicros();
+
+    /**
+     * Gets the histogram of the times to rate a human guess.
+     *
+     * @return The counts per bucket.
+     */
+    long[] getHumanMoveHistogram();
+
+    /**
+     * Gets the number of machine guesses made.
+     *
+     * @return The count.
+     */
+    long getMachineMoveCount();
+
+    /**
+     * Gets the mean time to make a machine guess.
+     *
+     * @return The mean in microseconds.
+     */
+    double getMachineMoveMeanMicros();
+
+    /**
+     * Gets the longest time to make a machine guess.
+     *
+     * @return The maximum in microseconds.
+     */
+    long getMachineMoveMaxMicros();
+
+    /**
+     * Gets the histogram of the times to make a machine guess.
+     *
+     * @return The counts per bucket.
+     */
+    long[] getMachineMoveHistogram();
+
+    /**
+     * Gets the number of machine guesses rated.
+     *
+     * @return The count.
+     */
+    long getEvalCount();
+
+    /**
+     * Gets the mean time to apply the rating of a machine guess.
+     *
+     * @return The mean in microseconds.
+     */
+    double getEvalMeanMicros();
+
+    /**
+     * Gets the longest time to apply the rating of a machine guess.
+     *
+     * @return The maximum in microseconds.
+     */
+    long getEvalMaxMicros();
+
+    /**
+     * Gets the histogram of the times to apply the rating of a machine
+     * guess.
+     *
+     * @return The counts per bucket.
+     */
+    long[] getEvalHistogram();
+
+    /**
+     * Gets the exclusive upper bounds of the histogram buckets, see
+     * {@link LatencyHistogram#BUCKETS}.
+     *
+     * @return The bounds in microseconds.
+     */
+    long[] getHistogramBoundsMicros();
+
+    /**
+     * Resets all counters.
+     */
+    void reset();
+}
@@ -0,0 +1,114 @@
+package mastermind.metrics;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histogram of durations with a bucket per power of two microseconds. All
+ * counters are striped, so threads recording at the same time do not
+ * contend. A snapshot taken while durations are recorded may be off by the
+ * durations in flight.
+ */
+public final class LatencyHistogram {
+
+    /**
+     * Number of buckets. Bucket 0 counts durations below 1 microsecond,
+     * bucket {@code i} those below {@code 2^i} microseconds and the last
+     * bucket all longer ones.
+     */
+    public static final int BUCKETS = 32;
+
+    private final LongAdder[] buckets = new LongAdder[BUCKETS];
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Creates an empty histogram.
+     */
+    public LatencyHistogram() {
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Records a duration.
+     *
+     * @param nanos The duration in nanoseconds.
+     */
+    public void record(long nanos) {
+        long micros = nanos / 1000;
+        int bucket = Long.SIZE - Long.numberOfLeadingZeros(micros);
+        buckets[Math.min(bucket, BUCKETS - 1)].increment();
+        count.increment();
+        totalNanos.add(nanos);
+        maxNanos.accumulate(nanos);
+    }
+
+    /**
+     * Gets the number of recorded durations.
+     *
+     * @return The count.
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * Gets the mean of the recorded durations.
+     *
+     * @return The mean in microseconds, 0 if there is none.
+     */
+    public double getMeanMicros() {
+        long n = count.sum();
+        return n == 0 ? 0 : totalNanos.sum() / 1000.0 / n;
+    }
+
+    /**
+     * Gets the longest recorded duration.
+     *
+     * @return The maximum in microseconds.
+     */
+    public long getMaxMicros() {
+        return maxNanos.get() / 1000;
+    }
+
+    /**
+     * Gets the number of durations per bucket.
+     *
+     * @return The counts, {@link #BUCKETS} long.
+     */
+    public long[] getBuckets() {
+        long[] counts = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets[i].sum();
+        }
+        return counts;
+    }
+
+    /**
+     * Gets the exclusive upper bounds of the buckets but the last one.
+     *
+     * @return The bounds in microseconds, {@link #BUCKETS} - 1 long.
+     */
+    public static long[] getBucketBoundsMicros() {
+        long[] bounds = new long[BUCKETS - 1];
+        for (int i = 0; i < bounds.length; i++) {
+            bounds[i] = 1L << i;
+        }
+        return bounds;
+    }
+
+    /**
+     * Resets all counters.
+     */
+    public void reset() {
+        for (LongAdder bucket : buckets) {
+            bucket.reset();
+        }
+        count.reset();
+        totalNanos.reset();
+        maxNanos.reset();
+    }
+}
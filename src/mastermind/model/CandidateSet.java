@@ -0,0 +1,306 @@
+package mastermind.model;
+
+/**
+ * Set of the codes still consistent with the ratings so far, stored as a bit
+ * set over the code ordinals. A new set views its whole {@link CodeUniverse}
+ * and allocates its bits only when the first rating is applied.
+ *
+ * A set is never modified: {@link #filter(int, int)} returns a new set. The
+ * bits are split into chunks of {@link #CHUNK_SIZE} codes, and filtering
+ * replaces only the chunks that change and drops the empty ones. Sets derived
+ * from each other therefore share their unchanged chunks, and a history of
+ * sets costs little more than its last set.
+ */
+public final class CandidateSet {
+
+    /**
+     * Number of codes per chunk of bits.
+     */
+    public static final int CHUNK_SIZE = 1 << 12;
+
+    private static final int CHUNK_SHIFT = 12;
+    private static final int WORDS_PER_CHUNK = CHUNK_SIZE / Long.SIZE;
+
+    private final GameConfig config;
+    private final CodeUniverse universe;
+    // null while the set contains every code, null chunks hold no code
+    private final long[][] chunks;
+    private final int count;
+
+    /**
+     * Creates a candidate set containing every code of a board, see
+     * {@link CodeUniverse#allCandidates()}.
+     *
+     * @param config The board configuration.
+     */
+    public CandidateSet(GameConfig config) {
+        this(CodeUniverse.forConfig(config));
+    }
+
+    CandidateSet(CodeUniverse universe) {
+        this(universe, null, universe.size());
+    }
+
+    private CandidateSet(CodeUniverse universe, long[][] chunks, int count) {
+        this.universe = universe;
+        config = universe.getConfig();
+        this.chunks = chunks;
+        this.count = count;
+    }
+
+    /**
+     * Returns an independent copy of this set. The chunks are shared, so this
+     * takes constant time.
+     *
+     * @return The copy.
+     */
+    public CandidateSet copy() {
+        return new CandidateSet(universe, chunks, count);
+    }
+
+    /**
+     * Gets the board configuration of the codes.
+     *
+     * @return The board configuration.
+     */
+    public GameConfig getConfig() {
+        return config;
+    }
+
+    /**
+     * Gets the universe of all codes of the board.
+     *
+     * @return The code universe.
+     */
+    public CodeUniverse getUniverse() {
+        return universe;
+    }
+
+    /**
+     * Gets the number of remaining candidates.
+     *
+     * @return The number of candidates.
+     */
+    public int count() {
+        return count;
+    }
+
+    /**
+     * Checks whether there is no candidate left.
+     *
+     * @return {@code true} if the set is empty.
+     */
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    /**
+     * Checks whether the code with the given ordinal is a candidate.
+     *
+     * @param ordinal The ordinal of the code.
+     * @return {@code true} if the code is a candidate.
+     */
+    public boolean contains(int ordinal) {
+        if (ordinal < 0 || ordinal >= universe.size()) {
+            return false;
+        }
+        if (chunks == null) {
+            return true;
+        }
+        long[] chunk = chunks[ordinal >>> CHUNK_SHIFT];
+        return chunk != null
+                && (chunk[(ordinal >>> 6) & (WORDS_PER_CHUNK - 1)]
+                        & (1L << ordinal)) != 0;
+    }
+
+    /**
+     * Gets the first candidate at or after {@code from}.
+     *
+     * @param from The ordinal to start from.
+     * @return The ordinal of the candidate or -1 if there is none.
+     */
+    public int next(int from) {
+        if (from >= universe.size()) {
+            return -1;
+        }
+        if (chunks == null) {
+            return from;
+        }
+        int words = (universe.size() + Long.SIZE - 1) / Long.SIZE;
+        int word = from >>> 6;
+        long bits = wordAt(word) & (-1L << from);
+        while (bits == 0) {
+            if (chunks[word / WORDS_PER_CHUNK] == null) {
+                // skip the rest of an empty chunk
+                word = (word / WORDS_PER_CHUNK + 1) * WORDS_PER_CHUNK - 1;
+            }
+            if (++word >= words) {
+                return -1;
+            }
+            bits = wordAt(word);
+        }
+        return word * Long.SIZE + Long.numberOfTrailingZeros(bits);
+    }
+
+    /**
+     * Gets the candidate at the given position in ordinal order.
+     *
+     * @param index The position, between 0 and {@link #count()} - 1.
+     * @return The ordinal of the candidate.
+     */
+    public int get(int index) {
+        if (chunks == null) {
+            return index;
+        }
+        int word = 0;
+        long bits = wordAt(0);
+        // skip whole words, then the bits of the word holding the candidate
+        while (Long.bitCount(bits) <= index) {
+            index -= Long.bitCount(bits);
+            bits = wordAt(++word);
+        }
+        for (int i = 0; i < index; i++) {
+            bits &= bits - 1;
+        }
+        return word * Long.SIZE + Long.numberOfTrailingZeros(bits);
+    }
+
+    /**
+     * Returns the candidates of this set which produce the rating
+     * {@code rating} for the guess {@code guess}. This set is not changed and
+     * shares its unchanged chunks with the result. Only the remaining
+     * candidates are visited.
+     *
+     * @param guess The ordinal of the guessed code.
+     * @param rating The ordinal of the rating of the guess.
+     * @return The filtered set.
+     */
+    public CandidateSet filter(int guess, int rating) {
+        ScoreTable scores = universe.getScores();
+        int packedGuess = universe.packed(guess);
+        int size = universe.size();
+        long[][] filtered = new long[(size + CHUNK_SIZE - 1) >>> CHUNK_SHIFT][];
+        int remaining = 0;
+        for (int c = 0; c < filtered.length; c++) {
+            long[] chunk = chunks == null ? null : chunks[c];
+            if (chunks != null && chunk == null) {
+                continue;
+            }
+            int base = c << CHUNK_SHIFT;
+            long[] kept = new long[Math.min(WORDS_PER_CHUNK,
+                    (size - base + Long.SIZE - 1) / Long.SIZE)];
+            boolean changed = chunk == null;
+            int keptInChunk = 0;
+            for (int w = 0; w < kept.length; w++) {
+                int offset = base + w * Long.SIZE;
+                long bits = chunk == null ? firstBits(size - offset) : chunk[w];
+                for (long rest = bits; rest != 0; rest &= rest - 1) {
+                    int i = offset + Long.numberOfTrailingZeros(rest);
+                    int score = scores.isTabulated() ? scores.score(guess, i)
+                            : ColorCode.score(config, packedGuess,
+                                    universe.packed(i));
+                    if (score == rating) {
+                        kept[w] |= rest & -rest;
+                    }
+                }
+                changed |= kept[w] != bits;
+                keptInChunk += Long.bitCount(kept[w]);
+            }
+            if (keptInChunk > 0) {
+                filtered[c] = changed ? kept : chunk;
+                remaining += keptInChunk;
+            }
+        }
+        return new CandidateSet(universe, filtered, remaining);
+    }
+
+    /**
+     * Estimates the heap occupied by this set, the shared score table not
+     * included. Chunks shared with other sets are counted in full.
+     *
+     * @return The estimated size in bytes.
+     */
+    long estimateMemoryUsage() {
+        return estimateMemoryUsage(null);
+    }
+
+    /**
+     * Estimates the heap occupied by this set in addition to another set,
+     * typically the one it was filtered from: the chunks shared with that
+     * set are not counted.
+     *
+     * @param other The other set or {@code null} to count all chunks.
+     * @return The estimated size in bytes.
+     */
+    long estimateMemoryUsage(CandidateSet other) {
+        // this object, the chunk array and the chunks
+        long size = 24;
+        if (chunks != null) {
+            long[][] shared = other == null ? null : other.chunks;
+            size += 16 + 4L * chunks.length;
+            for (int c = 0; c < chunks.length; c++) {
+                // chunks are shared at the same index only
+                if (chunks[c] != null && (shared == null
+                        || c >= shared.length || shared[c] != chunks[c])) {
+                    size += 16 + 8L * chunks[c].length;
+                }
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Returns the ordinals of at most {@code max} candidates, evenly spread
+     * over all candidates, in ascending order.
+     *
+     * @param max The maximum number of ordinals.
+     * @return The sampled candidate ordinals.
+     */
+    public int[] sample(int max) {
+        if (count <= max) {
+            return toArray();
+        }
+        int[] sample = new int[max];
+        if (chunks == null) {
+            for (int index = 0; index < max; index++) {
+                // the same positions as below
+                sample[index] = (int) (((long) index * count + max - 1) / max);
+            }
+            return sample;
+        }
+        long step = count;
+        int index = 0;
+        int position = 0;
+        for (int i = next(0); index < max; i = next(i + 1), position++) {
+            // take the candidate at position ceil(index * count / max)
+            if (position * (long) max >= index * step) {
+                sample[index++] = i;
+            }
+        }
+        return sample;
+    }
+
+    /**
+     * Returns the ordinals of all candidates in ascending order.
+     *
+     * @return The candidate ordinals.
+     */
+    public int[] toArray() {
+        int[] ordinals = new int[count];
+        int index = 0;
+        for (int i = next(0); i >= 0; i = next(i + 1)) {
+            ordinals[index++] = i;
+        }
+        return ordinals;
+    }
+
+    private long wordAt(int word) {
+        long[] chunk = chunks[word / WORDS_PER_CHUNK];
+        return chunk == null ? 0 : chunk[word % WORDS_PER_CHUNK];
+    }
+
+    // the bits of the first n codes of a word
+    private static long firstBits(int n) {
+        return n >= Long.SIZE ? -1L : (1L << n) - 1;
+    }
+}
@@ -0,0 +1,226 @@
+package mastermind.model;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Spliterator;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
+
+/**
+ * The codes of a board consistent with a history of rated guesses, enumerated
+ * lazily by ordinal. Nothing but the history is stored, so this works for
+ * boards far too large to hold a {@link CandidateSet}. The enumeration can be
+ * split into disjoint ordinal ranges for parallel search.
+ *
+ * Instances are immutable, {@link #restrict(int, int)} returns a new space.
+ */
+public final class CodeSpace {
+
+    // first range searched by firstConsistent, doubled until a code is found
+    private static final int FIRST_WINDOW = 1 << 16;
+
+    // ranges smaller than this are not split any further
+    private static final int MIN_SPLIT = 1 << 12;
+
+    private final GameConfig config;
+    private final int[] guesses;
+    private final int[] ratings;
+
+    /**
+     * Creates the space of all codes of a board.
+     *
+     * @param config The board configuration.
+     */
+    public CodeSpace(GameConfig config) {
+        this(config, new int[0], new int[0]);
+    }
+
+    private CodeSpace(GameConfig config, int[] guesses, int[] ratings) {
+        this.config = config;
+        this.guesses = guesses;
+        this.ratings = ratings;
+    }
+
+    /**
+     * Returns the space of the codes of this space which produce the rating
+     * {@code rating} for the guess {@code guess}.
+     *
+     * @param guess The packed guessed code.
+     * @param rating The ordinal of the rating of the guess.
+     * @return The restricted space.
+     */
+    public CodeSpace restrict(int guess, int rating) {
+        int[] moreGuesses = Arrays.copyOf(guesses, guesses.length + 1);
+        int[] moreRatings = Arrays.copyOf(ratings, ratings.length + 1);
+        moreGuesses[guesses.length] = guess;
+        moreRatings[ratings.length] = rating;
+        return new CodeSpace(config, moreGuesses, moreRatings);
+    }
+
+    /**
+     * Gets the board configuration of the codes.
+     *
+     * @return The board configuration.
+     */
+    public GameConfig getConfig() {
+        return config;
+    }
+
+    /**
+     * Estimates the heap occupied by this space.
+     *
+     * @return The estimated size in bytes.
+     */
+    long estimateMemoryUsage() {
+        // this object and the two history arrays
+        return 24 + 2 * (16 + 4L * guesses.length);
+    }
+
+    /**
+     * Checks whether a code is consistent with all rated guesses.
+     *
+     * @param packed The packed code.
+     * @return {@code true} if the code belongs to this space.
+     */
+    public boolean contains(int packed) {
+        for (int i = 0; i < guesses.length; i++) {
+            if (ColorCode.score(config, guesses[i], packed) != ratings[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Enumerates the ordinals of the consistent codes in [from, to).
+     *
+     * @param from The first ordinal.
+     * @param to The ordinal after the last one.
+     * @return The spliterator over the ordinals in ascending order.
+     */
+    public Spliterator.OfInt spliterator(int from, int to) {
+        return new ConsistentCodes(from, to);
+    }
+
+    /**
+     * Streams the ordinals of the consistent codes from {@code from} on.
+     *
+     * @param from The first ordinal.
+     * @param parallel {@code true} for a parallel stream.
+     * @return The stream of the ordinals in ascending order.
+     */
+    public IntStream stream(int from, boolean parallel) {
+        return StreamSupport.intStream(
+                spliterator(from, config.getNumberOfCodes()), parallel);
+    }
+
+    /**
+     * Finds the consistent code with the lowest ordinal at or after
+     * {@code from}. Ranges of growing size are searched in parallel, so a
+     * code close to {@code from} is found without scanning far beyond it.
+     *
+     * @param from The first ordinal.
+     * @return The ordinal of the code or -1 if there is none.
+     */
+    public int firstConsistent(int from) {
+        int end = config.getNumberOfCodes();
+        long window = FIRST_WINDOW;
+        while (from < end) {
+            int to = (int) Math.min(end, from + window);
+            int found = StreamSupport.intStream(spliterator(from, to), true)
+                    .findFirst().orElse(-1);
+            if (found >= 0) {
+                return found;
+            }
+            from = to;
+            window *= 2;
+        }
+        return -1;
+    }
+
+    /**
+     * Walks the ordinals of a range, keeping the packed code of the current
+     * ordinal up to date like an odometer instead of converting each ordinal.
+     */
+    private final class ConsistentCodes implements Spliterator.OfInt {
+
+        private int next;
+        private final int end;
+        private int packed;
+
+        ConsistentCodes(int from, int to) {
+            next = from;
+            end = to;
+            packed = next < end ? ColorCode.packedOf(config, next) : 0;
+        }
+
+        @Override
+        public boolean tryAdvance(IntConsumer action) {
+            while (next < end) {
+                int ordinal = next;
+                int code = packed;
+                advance();
+                if (contains(code)) {
+                    action.accept(ordinal);
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public void forEachRemaining(IntConsumer action) {
+            while (next < end) {
+                int ordinal = next;
+                int code = packed;
+                advance();
+                if (contains(code)) {
+                    action.accept(ordinal);
+                }
+            }
+        }
+
+        private void advance() {
+            next++;
+            // the last slot is the least significant digit of the ordinal
+            for (int i = config.getSlots() - 1; i >= 0; i--) {
+                int shift = i * ColorCode.BITS_PER_SLOT;
+                int color = (packed >>> shift)
+                        & ((1 << ColorCode.BITS_PER_SLOT) - 1);
+                if (color + 1 < config.getColors()) {
+                    packed += 1 << shift;
+                    return;
+                }
+                packed &= ~(((1 << ColorCode.BITS_PER_SLOT) - 1) << shift);
+            }
+        }
+
+        @Override
+        public Spliterator.OfInt trySplit() {
+            if (end - next < 2 * MIN_SPLIT) {
+                return null;
+            }
+            int mid = next + (end - next) / 2;
+            ConsistentCodes prefix = new ConsistentCodes(next, mid);
+            next = mid;
+            packed = ColorCode.packedOf(config, next);
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return end - next;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | DISTINCT | SORTED | NONNULL | IMMUTABLE;
+        }
+
+        @Override
+        public Comparator<? super Integer> getComparator() {
+            return null;
+        }
+    }
+}
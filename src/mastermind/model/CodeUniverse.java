@@ -0,0 +1,145 @@
+package mastermind.model;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * All codes of a board, shared by every game on that board. The universe is
+ * immutable; what is expensive to derive, the packed codes and the
+ * {@link ScoreTable}, is built on first use, once per JVM. Games hold a
+ * {@link CandidateSet} which views the whole universe until the first rating
+ * is applied, so starting a game costs neither time nor memory in the number
+ * of codes.
+ */
+public final class CodeUniverse {
+
+    /**
+     * Largest number of codes for which the packed codes are tabulated.
+     */
+    static final int MAX_PACKED_TABLE = 1 << 20;
+
+    private static final Map<Integer, CodeUniverse> UNIVERSES =
+            new ConcurrentHashMap<>();
+
+    private final GameConfig config;
+    // separate from the monitor guarding the scores, which are built from
+    // the packed codes by other threads
+    private final Object packedLock = new Object();
+    private volatile int[] packedCodes;
+    private volatile ScoreTable scores;
+
+    private CodeUniverse(GameConfig config) {
+        this.config = config;
+    }
+
+    /**
+     * Returns the universe of a board. Boards with the same codes share one
+     * universe whatever their number of moves.
+     *
+     * @param config The board configuration.
+     * @return The universe.
+     */
+    public static CodeUniverse forConfig(GameConfig config) {
+        return UNIVERSES.computeIfAbsent(
+                config.getSlots() * (GameConfig.MAX_COLORS + 1)
+                        + config.getColors(),
+                key -> new CodeUniverse(config));
+    }
+
+    /**
+     * Gets the board configuration of the codes.
+     *
+     * @return The board configuration.
+     */
+    public GameConfig getConfig() {
+        return config;
+    }
+
+    /**
+     * Gets the number of codes.
+     *
+     * @return The number of codes.
+     */
+    public int size() {
+        return config.getNumberOfCodes();
+    }
+
+    /**
+     * Returns a candidate set containing every code of the board.
+     *
+     * @return The candidate set.
+     */
+    public CandidateSet allCandidates() {
+        return new CandidateSet(this);
+    }
+
+    /**
+     * Gets the packed code with the given ordinal, see
+     * {@link ColorCode#packedOf(GameConfig, int)}. The codes of boards with up
+     * to {@link #MAX_PACKED_TABLE} codes are looked up.
+     *
+     * @param ordinal The ordinal of the code.
+     * @return The packed color code.
+     */
+    public int packed(int ordinal) {
+        int[] table = packedCodes;
+        if (table == null) {
+            if (size() > MAX_PACKED_TABLE) {
+                return ColorCode.packedOf(config, ordinal);
+            }
+            table = packedCodes();
+        }
+        return table[ordinal];
+    }
+
+    /**
+     * Gets the score table of the board, building it on the first call.
+     *
+     * @return The score table.
+     */
+    public ScoreTable getScores() {
+        ScoreTable table = scores;
+        if (table == null) {
+            synchronized (this) {
+                table = scores;
+                if (table == null) {
+                    table = new ScoreTable(this);
+                    scores = table;
+                }
+            }
+        }
+        return table;
+    }
+
+    /**
+     * Gets the packed codes of all ordinals, building them on the first call.
+     * Only for boards with up to {@link #MAX_PACKED_TABLE} codes.
+     *
+     * @return The packed codes, indexed by ordinal. Must not be modified.
+     */
+    int[] packedCodes() {
+        synchronized (packedLock) {
+            if (packedCodes != null) {
+                return packedCodes;
+            }
+            int[] table = new int[size()];
+            // count up like an odometer instead of dividing per code
+            int[] colors = new int[config.getSlots()];
+            int packed = 0;
+            for (int ordinal = 0; ordinal < table.length; ordinal++) {
+                table[ordinal] = packed;
+                for (int i = config.getSlots() - 1; i >= 0; i--) {
+                    int shift = i * ColorCode.BITS_PER_SLOT;
+                    if (++colors[i] < config.getColors()) {
+                        packed += 1 << shift;
+                        break;
+                    }
+                    colors[i] = 0;
+                    packed &= ~(((1 << ColorCode.BITS_PER_SLOT) - 1) << shift);
+                }
+            }
+            packedCodes = table;
+            return table;
+        }
+    }
+}
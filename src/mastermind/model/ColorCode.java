@@ -2,134 +2,507 @@ package mastermind.model;
 
 /**
  * Class color code.
+ *
+ * The code is stored packed into a single {@code int}, using
+ * {@link #BITS_PER_SLOT} bits per slot (slot 0 in the lowest bits). The
+ * {@code int[]} based methods are views over this packed value. Each code
+ * belongs to a {@link GameConfig} giving its number of slots and colors.
+ *
+ * Alongside, each code keeps how often it holds each color, packed into a
+ * {@code long} using {@link #BITS_PER_COUNT} bits per color (color 0 in the
+ * lowest bits), see {@link #colorCounts(GameConfig, int)}. The colors two
+ * codes have in common are the sum of the smaller counts per color, which is
+ * computed on all colors at once.
  */
 public class ColorCode implements Cloneable {
-	
- 	private final int[] colorCode; 
- 	
- 	/**
- 	 * Creates a new color code and initialize the color code length. 
- 	 */
- 	public ColorCode() {
- 		colorCode = new int[MastermindGame.NUMBER_SLOTS];	
- 	}
-		
-	/**
-	 * Creates a new color code and sets the codes. 
-	 * 
-	 * @param code The Array that includes the color code.
-	 */
+
+    /**
+     * Number of bits used for one slot in the packed representation.
+     */
+    public static final int BITS_PER_SLOT = 4;
+
+    /**
+     * Number of bits used for the count of one color in the color counts.
+     */
+    public static final int BITS_PER_COUNT = 4;
+
+    private static final int SLOT_MASK = (1 << BITS_PER_SLOT) - 1;
+
+    // the counts of the even and of the odd colors, one per byte
+    private static final long EVEN_COUNTS = 0x0F0F0F0F0F0F0F0FL;
+    private static final long BYTE_SIGNS = 0x8080808080808080L;
+    private static final long BYTE_ONES = 0x0101010101010101L;
+
+    private final GameConfig config;
+    private int packed;
+    private long counts;
+
+    /**
+     * Creates a new color code for the classic board.
+     */
+    public ColorCode() {
+        this(GameConfig.CLASSIC);
+    }
+
+    /**
+     * Creates a new color code for the given board, all slots holding
+     * color 0.
+     *
+     * @param config The board configuration.
+     */
+    public ColorCode(GameConfig config) {
+        this.config = config;
+        packed = 0;
+        counts = colorCounts(config.getSlots(), 0);
+    }
+
+    /**
+     * Creates a new color code for the classic board and sets the codes.
+     *
+     * @param code The Array that includes the color code.
+     * @throws IllegalArgumentException if the array length or a color does
+     *         not fit the board.
+     */
     public ColorCode(int[] code) {
-	    colorCode = new int[MastermindGame.NUMBER_SLOTS];
-	    for (int i = 0; i < Game.NUMBER_SLOTS; i++) {
-	    	colorCode[i] = code[i];
-	    }
-    }
-	      
-	/**   
-	 * Sets the color{@code color} in the position{@code pos} of the color
-	 * code.
-	 * 
-	 * @param pos The color position in the color code.
-	 * @param color The color.
-	 */
+        this(GameConfig.CLASSIC, code);
+    }
+
+    /**
+     * Creates a new color code for the given board and sets the codes.
+     *
+     * @param config The board configuration.
+     * @param code The Array that includes the color code.
+     * @throws IllegalArgumentException if the array length or a color does
+     *         not fit the board.
+     */
+    public ColorCode(GameConfig config, int[] code) {
+        this.config = config;
+        if (code.length != config.getSlots()) {
+            throw new IllegalArgumentException("code of " + code.length
+                    + " colors for " + config.getSlots() + " slots");
+        }
+        for (int i = 0; i < config.getSlots(); i++) {
+            packed = withColor(packed, i, checkColor(config, code[i]));
+        }
+        counts = colorCounts(config.getSlots(), packed);
+    }
+
+    /**
+     * Creates a color code from its packed representation.
+     *
+     * @param config The board configuration.
+     * @param packed The packed color code, see {@link #toPacked()}.
+     * @return The new color code.
+     */
+    public static ColorCode fromPacked(GameConfig config, int packed) {
+        ColorCode code = new ColorCode(config);
+        code.packed = packed;
+        code.counts = colorCounts(config.getSlots(), packed);
+        return code;
+    }
+
+    /**
+     * Creates the color code with the given ordinal, see {@link #ordinal()}.
+     *
+     * @param config The board configuration.
+     * @param ordinal The ordinal, between 0 and the number of codes - 1.
+     * @return The new color code.
+     */
+    public static ColorCode fromOrdinal(GameConfig config, int ordinal) {
+        return fromPacked(config, packedOf(config, ordinal));
+    }
+
+    /**
+     * Gets the board configuration this code belongs to.
+     *
+     * @return The board configuration.
+     */
+    public GameConfig getConfig() {
+        return config;
+    }
+
+    /**
+     * Returns the packed representation of this code.
+     *
+     * @return The packed color code.
+     */
+    public int toPacked() {
+        return packed;
+    }
+
+    /**
+     * Returns how often this code holds each color, see
+     * {@link #colorCounts(GameConfig, int)}.
+     *
+     * @return The packed color counts.
+     */
+    public long getColorCounts() {
+        return counts;
+    }
+
+    /**
+     * Returns the ordinal of this code. The ordinal reads the code as a number
+     * in base of the number of colors, slot 0 being the most significant
+     * digit.
+     *
+     * @return The ordinal of this code.
+     */
+    public int ordinal() {
+        return ordinalOf(config, packed);
+    }
+
+    /**
+     * Converts a packed code into its ordinal.
+     *
+     * @param config The board configuration.
+     * @param packed The packed color code.
+     * @return The ordinal of the code.
+     */
+    public static int ordinalOf(GameConfig config, int packed) {
+        int ordinal = 0;
+        for (int i = 0; i < config.getSlots(); i++) {
+            ordinal = ordinal * config.getColors() + colorAt(packed, i);
+        }
+        return ordinal;
+    }
+
+    /**
+     * Converts an ordinal into the packed code.
+     *
+     * @param config The board configuration.
+     * @param ordinal The ordinal of the code.
+     * @return The packed color code.
+     */
+    public static int packedOf(GameConfig config, int ordinal) {
+        int packed = 0;
+        for (int i = config.getSlots() - 1; i >= 0; i--) {
+            packed |= (ordinal % config.getColors()) << (i * BITS_PER_SLOT);
+            ordinal /= config.getColors();
+        }
+        return packed;
+    }
+
+    /**
+     * Gets the color in the position {@code pos} of the color code.
+     *
+     * @param pos The color position in the color code.
+     * @return The color.
+     */
+    public int getColor(int pos) {
+        return colorAt(packed, pos);
+    }
+
+    /**
+     * Sets the color{@code color} in the position{@code pos} of the color
+     * code.
+     *
+     * @param pos The color position in the color code.
+     * @param color The color.
+     * @throws IllegalArgumentException if the color is not one of the board.
+     * @throws IndexOutOfBoundsException if there is no such position.
+     */
     public void setColor(int pos, int color) {
-	    colorCode[pos] = color;
-	}
-	    	
-	/**   
-	 * Compares two color codes and calculates the number of black spikes , and
-	 * using the getWhite method also calculates the white spikes. the number
-	 * of black spikes is increased by one if both codes have the same colors
-	 * in the same positions.
-	 * 
-	 * It is stored in the two positions in the both color codes (where 
-	 * the black spikes occur) -1 to not count again when calculating from the
-	 * white spikes.
-	 *  
-	 * @param otherCode The second color code.
-	 * @return The resulting rating for black and white spikes.
-	 */
-	public Rating compare(ColorCode otherCode) {
-	    int black = 0;
-	    ColorCode firstCode = new ColorCode(this.colorCode);
-	    ColorCode secondCode = new ColorCode(otherCode.colorCode);
-	    for (int i = 0; i < colorCode.length; i++) {
-	        if (secondCode.colorCode[i] == firstCode.colorCode[i]) {
-	            black++;
-	            
-	            // -1 that it isn't counted when calculating the white spikes.
-	            secondCode.colorCode[i] = -1;
-	            firstCode.colorCode[i] = -1;
-	        }
-	    }       
-	    return new Rating(black, getWhiteNumber(firstCode, secondCode));
-	}
-	    
-	/**
-	 * To clone a color code
-	 *  
-	 *  @return The cloned color code.
-	 */
+        checkColor(config, color);
+        if (pos < 0 || pos >= config.getSlots()) {
+            throw new IndexOutOfBoundsException("no slot " + pos);
+        }
+        int old = colorAt(packed, pos);
+        packed = withColor(packed, pos, color);
+        counts += (1L << (colorAt(packed, pos) * BITS_PER_COUNT))
+                - (1L << (old * BITS_PER_COUNT));
+    }
+
+    /**
+     * Compares two color codes and calculates the number of black and white
+     * spikes, see {@link #countBlack(GameConfig, int, int)} and
+     * {@link #countWhite(GameConfig, int, int)}.
+     *
+     * @param otherCode The second color code.
+     * @return The resulting rating for black and white spikes.
+     */
+    public Rating compare(ColorCode otherCode) {
+        int black = countBlack(config, packed, otherCode.packed);
+        return Rating.fromOrdinal(Rating.ordinalOf(black,
+                countCommon(counts, otherCode.counts) - black));
+    }
+
+    /**
+     * Scores two packed codes.
+     *
+     * @param config The board configuration.
+     * @param first The first packed color code.
+     * @param second The second packed color code.
+     * @return The ordinal of the resulting rating, see
+     *         {@link Rating#ordinal()}.
+     */
+    public static int score(GameConfig config, int first, int second) {
+        int slots = config.getSlots();
+        return score(slots, config.getSlotLowBits(), first,
+                colorCounts(slots, first), second);
+    }
+
+    /**
+     * Scores a guess against the secrets {@code secrets[from]} to
+     * {@code secrets[to - 1]}, writing the score of {@code secrets[i]} to
+     * {@code ratings[offset + i - from]}. Allocates nothing.
+     *
+     * @param config The board configuration.
+     * @param guess The packed guessed code.
+     * @param secrets The packed secret codes.
+     * @param from The first secret, inclusive.
+     * @param to The last secret, exclusive.
+     * @param ratings The array receiving the ordinals of the ratings, see
+     *        {@link Rating#ordinal()}.
+     * @param offset The position of the score of {@code secrets[from]}.
+     */
+    public static void score(GameConfig config, int guess, int[] secrets,
+            int from, int to, int[] ratings, int offset) {
+        int slots = config.getSlots();
+        int lowBits = config.getSlotLowBits();
+        long guessCounts = colorCounts(slots, guess);
+        for (int i = from; i < to; i++) {
+            ratings[offset + i - from] = score(slots, lowBits, guess,
+                    guessCounts, secrets[i]);
+        }
+    }
+
+    /**
+     * Scores a guess against many secrets like
+     * {@link #score(GameConfig, int, int[], int, int, int[], int)}, writing
+     * the rating ordinals as bytes.
+     *
+     * @param config The board configuration.
+     * @param guess The packed guessed code.
+     * @param secrets The packed secret codes.
+     * @param from The first secret, inclusive.
+     * @param to The last secret, exclusive.
+     * @param ratings The array receiving the ordinals of the ratings.
+     * @param offset The position of the score of {@code secrets[from]}.
+     */
+    public static void score(GameConfig config, int guess, int[] secrets,
+            int from, int to, byte[] ratings, int offset) {
+        int slots = config.getSlots();
+        int lowBits = config.getSlotLowBits();
+        long guessCounts = colorCounts(slots, guess);
+        for (int i = from; i < to; i++) {
+            ratings[offset + i - from] = (byte) score(slots, lowBits, guess,
+                    guessCounts, secrets[i]);
+        }
+    }
+
+    /**
+     * Scores a guess against the secrets {@code secrets[from]} to
+     * {@code secrets[to - 1]} and counts the secrets per rating, i.e. adds 1
+     * to {@code histogram[r]} for each secret scoring {@code r}. Allocates
+     * nothing.
+     *
+     * @param config The board configuration.
+     * @param guess The packed guessed code.
+     * @param secrets The packed secret codes.
+     * @param from The first secret, inclusive.
+     * @param to The last secret, exclusive.
+     * @param histogram The counts per rating ordinal, at least
+     *        {@link GameConfig#getNumberOfRatings()} long.
+     */
+    public static void countScores(GameConfig config, int guess,
+            int[] secrets, int from, int to, int[] histogram) {
+        int slots = config.getSlots();
+        int lowBits = config.getSlotLowBits();
+        long guessCounts = colorCounts(slots, guess);
+        for (int i = from; i < to; i++) {
+            histogram[score(slots, lowBits, guess, guessCounts,
+                    secrets[i])]++;
+        }
+    }
+
+    // the board passed as its number of slots and low bits and the color
+    // counts of the first code, as hoisted out of the loops of the bulk
+    // methods
+    private static int score(int slots, int lowBits, int first,
+            long firstCounts, int second) {
+        int diff = first ^ second;
+        diff |= diff >>> 2;
+        diff |= diff >>> 1;
+        int black = slots - Integer.bitCount(diff & lowBits);
+        int common = countCommon(firstCounts, colorCounts(slots, second));
+        // Rating.ordinalOf(black, common - black)
+        return common * (common + 1) / 2 + black;
+    }
+
+    /**
+     * Counts the black spikes of two packed codes, i.e. the slots holding the
+     * same color in both codes. Works on all slots at once: a slot differs iff
+     * any bit of its xor is set, which is folded into the lowest bit of the
+     * slot and counted.
+     *
+     * @param config The board configuration.
+     * @param first The first packed color code.
+     * @param second The second packed color code.
+     * @return The number of black spikes.
+     */
+    public static int countBlack(GameConfig config, int first, int second) {
+        int diff = first ^ second;
+        diff |= diff >>> 2;
+        diff |= diff >>> 1;
+        return config.getSlots()
+                - Integer.bitCount(diff & config.getSlotLowBits());
+    }
+
+    /**
+     * Counts the white spikes of two packed codes, i.e. the colors contained
+     * in both codes but in different positions: the common colors, see
+     * {@link #countCommon(long, long)}, minus the black spikes.
+     *
+     * @param config The board configuration.
+     * @param first The first packed color code.
+     * @param second The second packed color code.
+     * @return The number of white spikes.
+     */
+    public static int countWhite(GameConfig config, int first, int second) {
+        int slots = config.getSlots();
+        return countCommon(colorCounts(slots, first),
+                colorCounts(slots, second))
+                - countBlack(config, first, second);
+    }
+
+    /**
+     * Counts how often a packed code holds each color. The count of color
+     * {@code c} is stored in the bits {@code c * BITS_PER_COUNT} to
+     * {@code (c + 1) * BITS_PER_COUNT - 1}.
+     *
+     * @param config The board configuration.
+     * @param packed The packed color code.
+     * @return The packed color counts.
+     */
+    public static long colorCounts(GameConfig config, int packed) {
+        return colorCounts(config.getSlots(), packed);
+    }
+
+    private static long colorCounts(int slots, int packed) {
+        long counts = 0;
+        for (int i = 0; i < slots; i++) {
+            counts += 1L << (colorAt(packed, i) * BITS_PER_COUNT);
+        }
+        return counts;
+    }
+
+    /**
+     * Counts the colors two codes have in common regardless of position, i.e.
+     * the sum over all colors of the smaller count, which is the number of
+     * black and white spikes together. The counts of the even and of the odd
+     * colors are spread to one byte each, the smaller of two bytes is picked
+     * by the sign of their difference and the bytes are summed by a
+     * multiplication.
+     *
+     * @param first The color counts of the first code, see
+     *        {@link #colorCounts(GameConfig, int)}.
+     * @param second The color counts of the second code.
+     * @return The number of common colors.
+     */
+    public static int countCommon(long first, long second) {
+        return sumOfMinima(first & EVEN_COUNTS, second & EVEN_COUNTS)
+                + sumOfMinima((first >>> BITS_PER_COUNT) & EVEN_COUNTS,
+                        (second >>> BITS_PER_COUNT) & EVEN_COUNTS);
+    }
+
+    // both hold counts up to MAX_SLOTS in each byte, so no difference borrows
+    // from the next byte and the sum fits into one byte
+    private static int sumOfMinima(long first, long second) {
+        long notLess = (((first | BYTE_SIGNS) - second) & BYTE_SIGNS) >>> 7;
+        long takeSecond = notLess * 0xFF;
+        long minima = (second & takeSecond) | (first & ~takeSecond);
+        return (int) ((minima * BYTE_ONES) >>> 56);
+    }
+
+    // the color, if it is one of the board
+    private static int checkColor(GameConfig config, int color) {
+        if (color < 0 || color >= config.getColors()) {
+            throw new IllegalArgumentException("no color " + color + " on a"
+                    + " board of " + config.getColors() + " colors");
+        }
+        return color;
+    }
+
+    private static int withColor(int packed, int pos, int color) {
+        int shift = pos * BITS_PER_SLOT;
+        return (packed & ~(SLOT_MASK << shift))
+                | ((color & SLOT_MASK) << shift);
+    }
+
+    private static int colorAt(int packed, int pos) {
+        return (packed >>> (pos * BITS_PER_SLOT)) & SLOT_MASK;
+    }
+
+    /**
+     * To clone a color code
+     *
+     * @return The cloned color code.
+     */
     @Override
-    public ColorCode clone() { 
-	    ColorCode code = new ColorCode();
-	    for (int i = 0; i < MastermindGame.NUMBER_SLOTS; i++) {
-	        code.colorCode[i] = colorCode[i];
-	    }
-	    return code;    	
-	    }
-	 
+    public ColorCode clone() {
+        return fromPacked(config, packed);
+    }
+
     /**
      * Calculates the white spikes. The number of white spikes is increased if
      * the two codes contain the same color but in different positions.
-     * It is stored in the two positions -1 to not count again 
-     * 
+     * Computed from the color counts of the codes, neither code is modified.
+     *
      * @param firstCode The first color code.
      * @param secondCode The second color code.
      * @return The number of white spikes.
      */
-	public int getWhiteNumber(ColorCode firstCode, ColorCode secondCode) {
-	    int white = 0;
-	    for (int i = 0; i < colorCode.length; i++) {
-	        if (secondCode.colorCode[i] != -1) {
-	            for (int j = 0; j < colorCode.length; j++) {
-	                if (secondCode.colorCode[i] != -1 
-	                		&& secondCode.colorCode[i] 
-	                				== firstCode.colorCode[j]) {
-	                    white++;
-	                    secondCode.colorCode[i] = -1;
-	                    firstCode.colorCode[j] = -1;
-	                }
-	            }
-	        }
-	    }
-	    return white;
-	}
-	   
-	/**
-	 * Returns the string representation of this color code.
-	 * 
-	 * @return The string representation of this color code.
-	 */
-	@Override
-	public String toString() {
-		StringBuilder stringbuilder = new StringBuilder();
-		for (int i = 0; i < Game.NUMBER_SLOTS; i++) {
-			stringbuilder.append(colorCode[i] + " ");			
-		}
-		return stringbuilder.toString();
-	}
-	/**
-	 * returns int[] representation of this code 
-	 * @return int[] color code
-	 */
-	public int[] toIntArray() {
-		return colorCode;
-	}
+    public int getWhiteNumber(ColorCode firstCode, ColorCode secondCode) {
+        return countCommon(firstCode.counts, secondCode.counts)
+                - countBlack(config, firstCode.packed, secondCode.packed);
+    }
+
+    /**
+     * Checks whether another object is the same color code.
+     *
+     * @param o An object.
+     * @return {@code true} if the other object holds the same colors on the
+     *         same board
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof ColorCode)) {
+            return false;
+        }
+        ColorCode other = (ColorCode) o;
+        return other.packed == packed && other.config.hasSameCodes(config);
+    }
+
+    @Override
+    public int hashCode() {
+        return packed;
+    }
+
+    /**
+     * Returns the string representation of this color code.
+     *
+     * @return The string representation of this color code.
+     */
+    @Override
+    public String toString() {
+        StringBuilder stringbuilder = new StringBuilder();
+        for (int i = 0; i < config.getSlots(); i++) {
+            stringbuilder.append(getColor(i)).append(' ');
+        }
+        return stringbuilder.toString();
+    }
+
+    /**
+     * returns int[] representation of this code. The array is a copy, changes
+     * to it do not affect this code.
+     *
+     * @return int[] color code
+     */
+    public int[] toIntArray() {
+        int[] colors = new int[config.getSlots()];
+        for (int i = 0; i < colors.length; i++) {
+            colors[i] = getColor(i);
+        }
+        return colors;
+    }
 }
-	    
-	    
-	    
-	    
-	
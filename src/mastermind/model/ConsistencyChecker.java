@@ -0,0 +1,193 @@
+package mastermind.model;
+
+import java.util.Arrays;
+
+/**
+ * Decides whether rated guesses can all be right, and finds the culprits if
+ * they cannot.
+ *
+ * Satisfiability is decided by a depth first search over the slots of the
+ * secret which prunes a partial code as soon as, for some guess, the black
+ * spikes or the common colors so far already exceed its rating or can no
+ * longer reach it with the slots left. This never enumerates the codes, so
+ * it works on every board.
+ *
+ * A minimal conflict is found by QuickXplain (Junker, 2004), which needs
+ * {@code O(k log(n / k))} satisfiability checks for a conflict of {@code k} of
+ * {@code n} ratings instead of trying subsets.
+ */
+public final class ConsistencyChecker {
+
+    private static final int SLOT_MASK = (1 << ColorCode.BITS_PER_SLOT) - 1;
+
+    private final GameConfig config;
+    private final int[] guesses;
+    private final int[] blacks;
+    private final int[] totals;
+
+    /**
+     * Creates a checker for a history of rated guesses.
+     *
+     * @param config The board configuration.
+     * @param guesses The packed guessed codes.
+     * @param ratings The ordinals of the ratings of the guesses.
+     */
+    public ConsistencyChecker(GameConfig config, int[] guesses,
+            int[] ratings) {
+        this.config = config;
+        this.guesses = guesses.clone();
+        blacks = new int[ratings.length];
+        totals = new int[ratings.length];
+        for (int i = 0; i < ratings.length; i++) {
+            Rating rating = Rating.fromOrdinal(ratings[i]);
+            blacks[i] = rating.getBlack();
+            totals[i] = rating.getBlack() + rating.getWhite();
+        }
+    }
+
+    /**
+     * Checks whether some code produces all ratings.
+     *
+     * @return {@code true} if the ratings are consistent.
+     */
+    public boolean isConsistent() {
+        int[] all = new int[guesses.length];
+        Arrays.setAll(all, i -> i);
+        return isConsistent(all);
+    }
+
+    /**
+     * Finds a minimal set of contradicting ratings: no code produces all of
+     * them, but leaving out any one makes them consistent.
+     *
+     * @return The indexes of the contradicting ratings in ascending order,
+     *         empty if the ratings are consistent.
+     */
+    public int[] findConflict() {
+        int[] all = new int[guesses.length];
+        Arrays.setAll(all, i -> i);
+        if (isConsistent(all)) {
+            return new int[0];
+        }
+        int[] conflict = quickXplain(new int[0], false, all);
+        Arrays.sort(conflict);
+        return conflict;
+    }
+
+    /**
+     * QuickXplain: the minimal subset of {@code candidates} which is
+     * inconsistent together with {@code background}.
+     */
+    private int[] quickXplain(int[] background, boolean changed,
+            int[] candidates) {
+        if (changed && !isConsistent(background)) {
+            return new int[0];
+        }
+        if (candidates.length == 1) {
+            return candidates;
+        }
+        int half = candidates.length / 2;
+        int[] first = Arrays.copyOfRange(candidates, 0, half);
+        int[] second = Arrays.copyOfRange(candidates, half, candidates.length);
+        int[] secondPart = quickXplain(concat(background, first), true,
+                second);
+        int[] firstPart = quickXplain(concat(background, secondPart),
+                secondPart.length > 0, first);
+        return concat(firstPart, secondPart);
+    }
+
+    private static int[] concat(int[] first, int[] second) {
+        int[] both = Arrays.copyOf(first, first.length + second.length);
+        System.arraycopy(second, 0, both, first.length, second.length);
+        return both;
+    }
+
+    // whether some code produces the ratings of the given guesses
+    private boolean isConsistent(int[] selected) {
+        int colors = config.getColors();
+        Search search = new Search(selected.length, colors);
+        for (int i = 0; i < selected.length; i++) {
+            int guess = guesses[selected[i]];
+            search.guesses[i] = guess;
+            search.blacks[i] = blacks[selected[i]];
+            search.totals[i] = totals[selected[i]];
+            for (int slot = 0; slot < config.getSlots(); slot++) {
+                search.guessCounts[i * colors + colorAt(guess, slot)]++;
+            }
+            if (search.totals[i] > config.getSlots()) {
+                return false;
+            }
+        }
+        return search.assign(0, config.getSlots());
+    }
+
+    private static int colorAt(int packed, int slot) {
+        return (packed >>> (slot * ColorCode.BITS_PER_SLOT)) & SLOT_MASK;
+    }
+
+    /**
+     * The state of the depth first search: the spikes each guess gets from
+     * the slots assigned so far.
+     */
+    private static final class Search {
+        final int length;
+        final int colors;
+        final int[] guesses;
+        final int[] blacks;
+        final int[] totals;
+        // occurrences of each color in each guess
+        final int[] guessCounts;
+        // occurrences of each color in the code so far
+        final int[] codeCounts;
+        final int[] blacksSoFar;
+        final int[] commonSoFar;
+
+        Search(int length, int colors) {
+            this.length = length;
+            this.colors = colors;
+            guesses = new int[length];
+            blacks = new int[length];
+            totals = new int[length];
+            guessCounts = new int[length * colors];
+            codeCounts = new int[colors];
+            blacksSoFar = new int[length];
+            commonSoFar = new int[length];
+        }
+
+        boolean assign(int slot, int slots) {
+            if (slot == slots) {
+                return true;
+            }
+            int left = slots - slot - 1;
+            for (int color = 0; color < colors; color++) {
+                boolean feasible = true;
+                for (int i = 0; i < length; i++) {
+                    if (colorAt(guesses[i], slot) == color) {
+                        blacksSoFar[i]++;
+                    }
+                    if (codeCounts[color] < guessCounts[i * colors + color]) {
+                        commonSoFar[i]++;
+                    }
+                    feasible &= blacksSoFar[i] <= blacks[i]
+                            && blacksSoFar[i] + left >= blacks[i]
+                            && commonSoFar[i] <= totals[i]
+                            && commonSoFar[i] + left >= totals[i];
+                }
+                codeCounts[color]++;
+                if (feasible && assign(slot + 1, slots)) {
+                    return true;
+                }
+                codeCounts[color]--;
+                for (int i = 0; i < length; i++) {
+                    if (colorAt(guesses[i], slot) == color) {
+                        blacksSoFar[i]--;
+                    }
+                    if (codeCounts[color] < guessCounts[i * colors + color]) {
+                        commonSoFar[i]--;
+                    }
+                }
+            }
+            return false;
+        }
+    }
+}
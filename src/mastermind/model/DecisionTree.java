@@ -0,0 +1,301 @@
+package mastermind.model;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+
+/**
+ * Precomputed decision tree of a guess strategy. Every node holds the guess
+ * for one rating history and, per rating, the node to continue with, so the
+ * machine can answer without any search.
+ *
+ * The binary format is the magic number, a version byte, the number of slots,
+ * colors and moves as bytes, the strategy name, the number of nodes and then per
+ * node in breadth first order the guess ordinal, the number of children and
+ * the rating ordinals leading to them. The children of all nodes are numbered
+ * consecutively in the same order.
+ */
+public final class DecisionTree {
+
+    /**
+     * System property holding the path of the tree loaded by
+     * {@link #getDefault()}.
+     */
+    public static final String PROPERTY = "mastermind.book";
+
+    private static final int MAGIC = 0x4D4D4454;
+    private static final byte VERSION = 1;
+
+    // the outcome of loading the default tree, set on the first call of
+    // getDefault(); the other two fields are published by the volatile write
+    private static volatile boolean defaultLoaded;
+    private static DecisionTree defaultTree;
+    private static UncheckedIOException defaultFailure;
+
+    private final GameConfig config;
+    private final String strategyName;
+    private final int ratings;
+    private final int[] guesses;
+    private final int[] children;
+
+    private DecisionTree(GameConfig config, String strategyName, int[] guesses,
+            int[] children) {
+        this.config = config;
+        this.strategyName = strategyName;
+        this.ratings = config.getNumberOfRatings();
+        this.guesses = guesses;
+        this.children = children;
+    }
+
+    /**
+     * Returns the tree stored in the file named by the system property
+     * {@value #PROPERTY}. It is loaded on the first call only; if that fails,
+     * every call throws.
+     *
+     * @return The tree or {@code null} if the property is not set.
+     * @throws UncheckedIOException if the file cannot be loaded.
+     */
+    public static DecisionTree getDefault() {
+        if (!defaultLoaded) {
+            synchronized (DecisionTree.class) {
+                if (!defaultLoaded) {
+                    try {
+                        defaultTree = loadDefault();
+                    } catch (UncheckedIOException e) {
+                        defaultFailure = e;
+                    }
+                    defaultLoaded = true;
+                }
+            }
+        }
+        if (defaultFailure != null) {
+            // a new exception, so the stack trace shows the caller
+            throw new UncheckedIOException(defaultFailure.getMessage(),
+                    defaultFailure.getCause());
+        }
+        return defaultTree;
+    }
+
+    private static DecisionTree loadDefault() {
+        String path = System.getProperty(PROPERTY);
+        if (path == null) {
+            return null;
+        }
+        try (InputStream in = Files.newInputStream(Paths.get(path))) {
+            return read(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException("cannot load " + path, e);
+        }
+    }
+
+    /**
+     * Computes the tree of a strategy by playing it against every rating that
+     * is possible at each node.
+     *
+     * @param config The board configuration.
+     * @param strategy The guess strategy.
+     * @return The tree.
+     */
+    public static DecisionTree build(GameConfig config,
+            GuessStrategy strategy) {
+        int ratings = config.getNumberOfRatings();
+        int[] guesses = new int[16];
+        int[] children = new int[16 * ratings];
+        int win = Rating.valueOf(config.getSlots(), 0).ordinal();
+        int nodes = 0;
+        int next = 1;
+        ArrayDeque<CandidateSet> queue = new ArrayDeque<>();
+        queue.add(new CandidateSet(config));
+        while (!queue.isEmpty()) {
+            CandidateSet candidates = queue.poll();
+            if (nodes == guesses.length) {
+                guesses = Arrays.copyOf(guesses, 2 * nodes);
+                children = Arrays.copyOf(children, 2 * nodes * ratings);
+            }
+            int guess = strategy.nextGuess(candidates);
+            guesses[nodes] = guess;
+            for (int rating = 0; rating < ratings; rating++) {
+                CandidateSet remaining = candidates.filter(guess, rating);
+                if (rating == win || remaining.isEmpty()) {
+                    children[nodes * ratings + rating] = -1;
+                } else {
+                    children[nodes * ratings + rating] = next++;
+                    queue.add(remaining);
+                }
+            }
+            nodes++;
+        }
+        return new DecisionTree(config, strategy.getName(),
+                Arrays.copyOf(guesses, nodes),
+                Arrays.copyOf(children, nodes * ratings));
+    }
+
+    /**
+     * Reads a tree in the binary format.
+     *
+     * @param in The stream to read from.
+     * @return The tree.
+     * @throws IOException if the stream cannot be read or is not a tree.
+     */
+    public static DecisionTree read(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(
+                new BufferedInputStream(in));
+        if (data.readInt() != MAGIC || data.readByte() != VERSION) {
+            throw new IOException("not a decision tree");
+        }
+        GameConfig config;
+        try {
+            config = new GameConfig(data.readByte(), data.readByte(),
+                    data.readByte());
+        } catch (IllegalArgumentException e) {
+            throw new IOException("invalid board in decision tree", e);
+        }
+        int ratings = config.getNumberOfRatings();
+        String strategyName = data.readUTF();
+        int nodes = data.readInt();
+        if (nodes <= 0 || nodes > Integer.MAX_VALUE / ratings) {
+            throw new IOException("invalid node count in decision tree: "
+                    + nodes);
+        }
+        int[] guesses = new int[nodes];
+        int[] children = new int[nodes * ratings];
+        Arrays.fill(children, -1);
+        int next = 1;
+        for (int node = 0; node < nodes; node++) {
+            guesses[node] = data.readInt();
+            if (guesses[node] < 0
+                    || guesses[node] >= config.getNumberOfCodes()) {
+                throw new IOException("invalid guess at node " + node);
+            }
+            int count = data.readUnsignedByte();
+            for (int i = 0; i < count; i++) {
+                int rating = data.readUnsignedByte();
+                if (rating >= ratings || next >= nodes
+                        || children[node * ratings + rating] >= 0) {
+                    throw new IOException("invalid child of node " + node);
+                }
+                children[node * ratings + rating] = next++;
+            }
+        }
+        if (next != nodes) {
+            throw new IOException("unreachable nodes in decision tree");
+        }
+        return new DecisionTree(config, strategyName, guesses, children);
+    }
+
+    /**
+     * Writes this tree in the binary format.
+     *
+     * @param out The stream to write to.
+     * @throws IOException if the stream cannot be written.
+     */
+    public void write(OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(
+                new BufferedOutputStream(out));
+        data.writeInt(MAGIC);
+        data.writeByte(VERSION);
+        data.writeByte(config.getSlots());
+        data.writeByte(config.getColors());
+        data.writeByte(config.getMaxMoves());
+        data.writeUTF(strategyName);
+        data.writeInt(guesses.length);
+        for (int node = 0; node < guesses.length; node++) {
+            data.writeInt(guesses[node]);
+            int first = node * ratings;
+            int count = 0;
+            for (int rating = 0; rating < ratings; rating++) {
+                if (children[first + rating] >= 0) {
+                    count++;
+                }
+            }
+            data.writeByte(count);
+            for (int rating = 0; rating < ratings; rating++) {
+                if (children[first + rating] >= 0) {
+                    data.writeByte(rating);
+                }
+            }
+        }
+        data.flush();
+    }
+
+    /**
+     * Gets the board configuration this tree was built for.
+     *
+     * @return The board configuration.
+     */
+    public GameConfig getConfig() {
+        return config;
+    }
+
+    /**
+     * Gets the name of the strategy this tree was built from.
+     *
+     * @return The strategy name.
+     */
+    public String getStrategyName() {
+        return strategyName;
+    }
+
+    /**
+     * Gets the number of nodes.
+     *
+     * @return The number of nodes.
+     */
+    public int size() {
+        return guesses.length;
+    }
+
+    /**
+     * Gets the guess at a node. The root is node 0.
+     *
+     * @param node The node.
+     * @return The ordinal of the guess.
+     */
+    public int getGuess(int node) {
+        return guesses[node];
+    }
+
+    /**
+     * Gets the node following a node after the guess was rated.
+     *
+     * @param node The node.
+     * @param rating The ordinal of the rating.
+     * @return The next node or -1 if the rating is the winning one or not
+     *         consistent with the ratings so far.
+     */
+    public int getChild(int node, int rating) {
+        return children[node * ratings + rating];
+    }
+
+    /**
+     * Builds the tree of a strategy and writes it to a file. The board is
+     * given by the system properties, see
+     * {@link GameConfig#fromSystemProperties()}.
+     *
+     * @param args The strategy name and the file path.
+     * @throws IOException if the file cannot be written.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("usage: DecisionTree <strategy> <file>");
+            System.exit(1);
+        }
+        DecisionTree tree = build(GameConfig.fromSystemProperties(),
+                GuessStrategy.forName(args[0]));
+        Path path = Paths.get(args[1]);
+        try (OutputStream out = Files.newOutputStream(path)) {
+            tree.write(out);
+        }
+        System.out.println(tree.size() + " nodes written to " + path);
+    }
+}
@@ -0,0 +1,36 @@
+package mastermind.model;
+
+/**
+ * Guesses the code maximising the Shannon entropy of the rating distribution
+ * over the remaining candidates, i.e. the expected information of the rating.
+ */
+public final class EntropyStrategy extends PartitionStrategy {
+
+    /**
+     * Name of this strategy.
+     */
+    public static final String NAME = "entropy";
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    /**
+     * The entropy is {@code log n - sum(h log h) / n} for partition sizes
+     * {@code h}, so the guess with the smallest sum has the largest entropy.
+     */
+    @Override
+    double rate(int[] histogram, int candidates) {
+        double sum = 0;
+        for (int size : histogram) {
+            if (size > 1) {
+                sum += size * Math.log(size);
+            }
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,45 @@
+package mastermind.model;
+
+/**
+ * Guesses the consistent code with the lowest ordinal.
+ */
+public final class FirstConsistentStrategy implements GuessStrategy {
+
+    /**
+     * Name of this strategy.
+     */
+    public static final String NAME = "first";
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public int nextGuess(CandidateSet candidates) {
+        return candidates.next(0);
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public Cost getPrecomputationCost() {
+        return Cost.NONE;
+    }
+
+    /**
+     * {@inheritDoc } The candidate set is scanned word by word up to the
+     * first candidate.
+     */
+    @Override
+    public Cost getTurnCost() {
+        return Cost.LINEAR;
+    }
+}
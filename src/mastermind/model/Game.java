@@ -3,31 +3,85 @@ package mastermind.model;
 import java.util.ArrayList;
 import java.util.Random;
 
+import mastermind.metrics.GameMetrics;
+
 /**
  * class game implements the methods that controls the game.
+ *
+ * On boards with more than {@link #MAX_CANDIDATE_SET} codes the candidates
+ * are not stored but searched lazily in a {@link CodeSpace}, and the machine
+ * guesses the first consistent code whatever the strategy.
+ *
+ * Every call of {@link #humanMove(ColorCode)}, {@link #machineMove()} and
+ * {@link #eval(Rating)} records the resulting state, sharing the candidates
+ * with the states before, so it can be taken back by {@link #undo()} and
+ * replayed by {@link #redo()} in constant time. {@link #branch(int, Rating)}
+ * starts a separate game from a different rating of an earlier guess.
+ *
+ * A {@link GameListener} set by {@link #setGameListener(GameListener)} is
+ * told when the game is over. The moves and outcomes of all games are
+ * recorded in the {@link GameMetrics#getDefault() metrics} of the JVM, the
+ * outcome once per game when it is first over.
  */
 public class Game implements MastermindGame {
+
+    /**
+     * Largest number of codes for which the candidates are kept in a
+     * {@link CandidateSet}.
+     */
+    public static final int MAX_CANDIDATE_SET = 1 << 22;
+
+    private static final GameMetrics METRICS = GameMetrics.getDefault();
     
+    private final GameConfig config;
     private boolean machineGuessing;
-    private static final int NO_POSSIBILITIES = 1296;
+    private final GuessStrategy strategy;
+    private final DecisionTree book;
+    private int bookNode;
     private int numberOfMoves;
-    private final ArrayList<ColorCode> possibleCodes;
+    private CandidateSet possibleCodes;
+    private CodeSpace codeSpace;
+    private int nextCandidate;
     private final ArrayList<ColorCode> moves;
     private final ArrayList<Rating> ratings;
     private final ColorCode secretCode;
+    private final ArrayList<State> history;
+    private int current;
+    private GameListener listener;
+    // set when the game is first over or a rating is first rejected, undo
+    // does not reset them
+    private boolean over;
+    private boolean cheated;
+
+    /**
+     * The state after one step of the game. The candidates of a state are
+     * never modified, later states filter them into new sets.
+     */
+    private static final class State {
+        final int numberOfMoves;
+        final int numberOfGuesses;
+        final int numberOfRatings;
+        final CandidateSet possibleCodes;
+        final CodeSpace codeSpace;
+        final int nextCandidate;
+        final int bookNode;
+
+        State(Game game) {
+            numberOfMoves = game.numberOfMoves;
+            numberOfGuesses = game.moves.size();
+            numberOfRatings = game.ratings.size();
+            possibleCodes = game.possibleCodes;
+            codeSpace = game.codeSpace;
+            nextCandidate = game.nextCandidate;
+            bookNode = game.bookNode;
+        }
+    }
 
     /**
      * Creates a new Game and initialize the Attributes.
      */
     public Game() {
-        machineGuessing = false;
-        numberOfMoves = 0;
-        possibleCodes = new ArrayList<>();
-        moves = new ArrayList<>();
-        ratings = new ArrayList<>();
-        fillPossibleCodes();
-        Random random = new Random();
-        secretCode = possibleCodes.get(random.nextInt(possibleCodes.size()));
+        this(false);
     }
     
     /**
@@ -35,10 +89,116 @@ public class Game implements MastermindGame {
      * @param machineGuessing True if the machine is the guesser
      */
     public Game(boolean machineGuessing) {
-        this();
+        this(GameConfig.fromSystemProperties(), machineGuessing);
+    }
+
+    /**
+     * Creates a new game on the given board.
+     *
+     * @param config The board configuration.
+     * @param machineGuessing True if the machine is the guesser
+     */
+    public Game(GameConfig config, boolean machineGuessing) {
+        this(config, machineGuessing, GuessStrategy.fromSystemProperty());
+    }
+
+    /**
+     * Creates a new game with the given strategy for the machine guesses.
+     *
+     * @param machineGuessing True if the machine is the guesser
+     * @param strategy The strategy used by {@link #machineMove()}.
+     */
+    public Game(boolean machineGuessing, GuessStrategy strategy) {
+        this(GameConfig.fromSystemProperties(), machineGuessing, strategy);
+    }
+
+    /**
+     * Creates a new game on the given board with the given strategy for the
+     * machine guesses.
+     *
+     * @param config The board configuration.
+     * @param machineGuessing True if the machine is the guesser
+     * @param strategy The strategy used by {@link #machineMove()}. If the
+     *        {@link DecisionTree#getDefault() default decision tree} was built
+     *        from the same strategy and board, the guesses are taken from the
+     *        tree.
+     * @throws java.io.UncheckedIOException if the default decision tree
+     *         cannot be loaded.
+     */
+    public Game(GameConfig config, boolean machineGuessing,
+            GuessStrategy strategy) {
+        this.config = config;
         this.machineGuessing = machineGuessing;
+        this.strategy = strategy;
+        DecisionTree tree = DecisionTree.getDefault();
+        if (tree != null && tree.getConfig().hasSameCodes(config)
+                && tree.getStrategyName().equals(strategy.getName())) {
+            book = tree;
+            bookNode = 0;
+        } else {
+            book = null;
+            bookNode = -1;
+        }
+        numberOfMoves = 0;
+        moves = new ArrayList<>();
+        ratings = new ArrayList<>();
+        fillPossibleCodes();
+        Random random = new Random();
+        secretCode = ColorCode.fromOrdinal(config,
+                random.nextInt(config.getNumberOfCodes()));
+        history = new ArrayList<>();
+        history.add(new State(this));
+        current = 0;
+        METRICS.gameStarted(strategy.getName());
+    }
+
+    // the game as it was in the state with the given index of another game
+    private Game(Game other, int state) {
+        config = other.config;
+        machineGuessing = other.machineGuessing;
+        strategy = other.strategy;
+        book = other.book;
+        secretCode = other.secretCode;
+        listener = other.listener;
+        history = new ArrayList<>(other.history.subList(0, state + 1));
+        State last = history.get(state);
+        moves = new ArrayList<>(other.moves.subList(0, last.numberOfGuesses));
+        ratings = new ArrayList<>(
+                other.ratings.subList(0, last.numberOfRatings));
+        restore(state);
+        METRICS.gameStarted(strategy.getName());
+    }
+
+    /**
+     * Sets the listener told when this game is over, i.e. when the secret is
+     * found or the last possible move is rated. The listener is told once:
+     * moves made after the end, or again after {@link #undo()}, do not end
+     * the game a second time. Games created by {@link #branch(int, Rating)}
+     * inherit the listener and are told of their own end.
+     *
+     * @param listener The listener or {@code null} for none.
+     */
+    public void setGameListener(GameListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Gets the strategy used for the machine guesses.
+     *
+     * @return The guess strategy.
+     */
+    public GuessStrategy getStrategy() {
+        return strategy;
     }
     
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public GameConfig getConfig() {
+        return config;
+    }
+
     /**
      * {@inheritDoc }
      */
@@ -55,6 +215,14 @@ public class Game implements MastermindGame {
         return numberOfMoves;
     }
 
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public int getRatingCount() {
+        return history.get(current).numberOfRatings;
+    }
+
     /**
      * {@inheritDoc }
      */
@@ -71,6 +239,66 @@ public class Game implements MastermindGame {
         return ratings.get(moveNo);
     }
 
+    /**
+     * Gets the number of codes which are still consistent with all ratings
+     * given so far. On boards where the candidates are not stored this scans
+     * all codes, and while the human is guessing the candidates are filtered
+     * on each call, see {@link #getCandidates()}.
+     *
+     * @return The number of remaining candidates.
+     */
+    public int getCandidateCount() {
+        if (possibleCodes == null) {
+            return (int) codeSpace.stream(nextCandidate, true).count();
+        }
+        return candidates().count();
+    }
+
+    /**
+     * Gets the codes which are still consistent with all ratings given so
+     * far, whoever is guessing. The set is a snapshot, later moves do not
+     * change it. The guesses of a human are not filtered as they are made,
+     * so that {@link #humanMove(ColorCode)} takes constant time; each call
+     * filters all codes through the ratings so far instead.
+     *
+     * @return The candidates or {@code null} on boards where they are not
+     *         stored, see {@link #MAX_CANDIDATE_SET}.
+     */
+    public CandidateSet getCandidates() {
+        return possibleCodes == null ? null : candidates().copy();
+    }
+
+    /**
+     * Estimates the heap occupied by this game. Data shared between games,
+     * like the score table, the decision tree and the ratings, is not
+     * counted; the states a game created by {@link #branch(int, Rating)}
+     * shares with its origin are counted in both games.
+     *
+     * @return The estimated size in bytes.
+     */
+    public long estimateMemoryUsage() {
+        // this object, the two lists with their arrays and the secret
+        long size = 64 + 2 * (24 + 16) + 24;
+        // one reference per list entry, one code per move
+        size += 4L * (moves.size() + ratings.size()) + 24L * moves.size();
+        // the states and what they do not share with the state before
+        Object previous = null;
+        for (State state : history) {
+            size += 4 + 48;
+            Object candidates = state.possibleCodes != null
+                    ? state.possibleCodes : state.codeSpace;
+            if (candidates != previous) {
+                size += state.possibleCodes != null
+                        ? state.possibleCodes.estimateMemoryUsage(
+                                previous instanceof CandidateSet
+                                        ? (CandidateSet) previous : null)
+                        : state.codeSpace.estimateMemoryUsage();
+                previous = candidates;
+            }
+        }
+        return size;
+    }
+
     /**
      * {@inheritDoc }
      */
@@ -84,9 +312,19 @@ public class Game implements MastermindGame {
      */
     @Override
     public Rating humanMove(ColorCode move) {
+        long start = System.nanoTime();
+        discardRedo();
         numberOfMoves++;
         Rating rate = getSecret().compare(move);
+        moves.add(move.clone());
         ratings.add(rate);
+        // a stored candidate set is only filtered on demand, see candidates()
+        if (possibleCodes == null) {
+            codeSpace = codeSpace.restrict(move.toPacked(), rate.ordinal());
+        }
+        record();
+        METRICS.humanMove(System.nanoTime() - start);
+        rated(rate, numberOfMoves);
         return rate;
     }
 
@@ -95,42 +333,253 @@ public class Game implements MastermindGame {
      */
     @Override
     public ColorCode machineMove() {
+        long start = System.nanoTime();
+        discardRedo();
         numberOfMoves++;      
-        if (possibleCodes.isEmpty()) {
-            return null;
+        ColorCode guess;
+        if (possibleCodes == null) {
+            guess = lazyMachineMove();
+        } else if (possibleCodes.isEmpty()) {
+            guess = null;
+        } else {
+            guess = ColorCode.fromOrdinal(config, bookNode >= 0
+                    ? book.getGuess(bookNode)
+                    : strategy.nextGuess(possibleCodes));
+            moves.add(guess);
         }
-        
-        moves.add(possibleCodes.get(0));
-        return possibleCodes.get(0);
+        record();
+        METRICS.machineMove(System.nanoTime() - start);
+        return guess;
     }
     
     /**
-     * {@inheritDoc }
+     * {@inheritDoc } On boards where the candidates are not stored, the
+     * ratings are checked by a {@link ConsistencyChecker}.
      */
     @Override
     public void eval(Rating rating) {
-        ColorCode last = moves.get(moves.size() - 1);
-        ArrayList<ColorCode> tmp = new ArrayList<>(possibleCodes);
-        possibleCodes.clear();
-
-        for (ColorCode colorCode : tmp) {
-            Rating r = colorCode.compare(last);
-            if (rating.equals(r)) {
-                possibleCodes.add(colorCode);
+        long start = System.nanoTime();
+        try {
+            applyRating(rating);
+        } finally {
+            METRICS.eval(System.nanoTime() - start);
+        }
+        rated(rating, ratings.size());
+    }
+
+    private void applyRating(Rating rating) {
+        State state = history.get(current);
+        if (state.numberOfGuesses != state.numberOfRatings + 1) {
+            throw new IllegalStateException("no guess to rate");
+        }
+        if (rating.getBlack() + rating.getWhite() > config.getSlots()) {
+            throw new IllegalArgumentException("more spikes than slots: "
+                    + rating);
+        }
+        ColorCode last = moves.get(state.numberOfGuesses - 1);
+        CandidateSet filtered = null;
+        if (possibleCodes == null) {
+            ConsistencyChecker checker = checker(rating);
+            if (!checker.isConsistent()) {
+                cheated();
+                throw new InconsistentRatingsException(checker.findConflict());
             }
+        } else {
+            filtered = possibleCodes.filter(last.ordinal(), rating.ordinal());
+            if (filtered.isEmpty()) {
+                cheated();
+                throw new InconsistentRatingsException(
+                        checker(rating).findConflict());
+            }
+        }
+        discardRedo();
+        ratings.add(rating);
+        if (possibleCodes == null) {
+            codeSpace = codeSpace.restrict(last.toPacked(), rating.ordinal());
+        } else {
+            possibleCodes = filtered;
+            if (bookNode >= 0) {
+                bookNode = book.getChild(bookNode, rating.ordinal());
+            }
+        }
+        record();
+    }
+
+    // records the candidates left and, if the given rating of the given move
+    // ends the game for the first time, the outcome, and tells the listener
+    private void rated(Rating rating, int rated) {
+        if (machineGuessing && possibleCodes != null) {
+            METRICS.candidatesLeft(possibleCodes.count());
         }
+        boolean won = rating.getBlack() == config.getSlots();
+        if (over || !won && rated < config.getMaxMoves()) {
+            return;
+        }
+        over = true;
+        if (won) {
+            METRICS.gameWon();
+        } else {
+            METRICS.gameLost();
+        }
+        if (listener != null) {
+            listener.gameOver(this);
+        }
+    }
+
+    private void cheated() {
+        if (!cheated) {
+            cheated = true;
+            METRICS.gameCheated();
+        }
+    }
+
+    // the stored candidates, which a human guesser's ratings still have to be
+    // applied to
+    private CandidateSet candidates() {
+        if (machineGuessing) {
+            return possibleCodes;
+        }
+        CandidateSet candidates = possibleCodes;
+        int rated = history.get(current).numberOfRatings;
+        for (int i = 0; i < rated; i++) {
+            candidates = candidates.filter(moves.get(i).ordinal(),
+                    ratings.get(i).ordinal());
+        }
+        return candidates;
+    }
+
+    // the rated guesses so far, the last guess rated as given
+    private ConsistencyChecker checker(Rating lastRating) {
+        int rated = history.get(current).numberOfRatings;
+        int[] guesses = new int[rated + 1];
+        int[] ratingOrdinals = new int[rated + 1];
+        for (int i = 0; i < rated; i++) {
+            guesses[i] = moves.get(i).toPacked();
+            ratingOrdinals[i] = ratings.get(i).ordinal();
+        }
+        guesses[rated] = moves.get(rated).toPacked();
+        ratingOrdinals[rated] = lastRating.ordinal();
+        return new ConsistencyChecker(config, guesses, ratingOrdinals);
+    }
+
+    /**
+     * Determines whether there is a step to take back.
+     *
+     * @return {@code true} if {@link #undo()} is possible.
+     */
+    public boolean canUndo() {
+        return current > 0;
+    }
+
+    /**
+     * Takes back the last step, i.e. the last call of
+     * {@link #humanMove(ColorCode)}, {@link #machineMove()} or
+     * {@link #eval(Rating)}. To correct the rating of the last machine guess
+     * after the next guess was made, undo twice.
+     *
+     * @throws IllegalStateException if there is no step to take back.
+     */
+    public void undo() {
+        if (!canUndo()) {
+            throw new IllegalStateException("nothing to undo");
+        }
+        restore(current - 1);
+    }
+
+    /**
+     * Determines whether there is a step taken back to replay.
+     *
+     * @return {@code true} if {@link #redo()} is possible.
+     */
+    public boolean canRedo() {
+        return current < history.size() - 1;
+    }
+
+    /**
+     * Replays the step last taken back by {@link #undo()}. Any new step
+     * discards the steps which could be replayed.
+     *
+     * @throws IllegalStateException if there is no step to replay.
+     */
+    public void redo() {
+        if (!canRedo()) {
+            throw new IllegalStateException("nothing to redo");
+        }
+        restore(current + 1);
+    }
+
+    /**
+     * Creates the game which would have followed if the machine guess of move
+     * {@code moveNo} had been rated {@code rating}. The new game shares the
+     * states before that rating with this game; both can be played on
+     * independently.
+     *
+     * @param moveNo The number of a machine guess made so far.
+     * @param rating The alternative rating of that guess.
+     * @return The new game, with the alternative rating applied.
+     * @throws IllegalStateException if the human is guessing.
+     * @throws IllegalArgumentException if there is no such guess.
+     */
+    public Game branch(int moveNo, Rating rating) {
+        if (!machineGuessing) {
+            throw new IllegalStateException("the human is guessing");
+        }
+        for (int state = current; state >= 0; state--) {
+            State candidate = history.get(state);
+            if (candidate.numberOfGuesses == moveNo + 1
+                    && candidate.numberOfRatings == moveNo) {
+                Game game = new Game(this, state);
+                game.eval(rating);
+                return game;
+            }
+        }
+        throw new IllegalArgumentException("no guess " + moveNo
+                + " to rate");
+    }
+
+    // takes back the steps after the current state for a new step
+    private void discardRedo() {
+        if (canRedo()) {
+            history.subList(current + 1, history.size()).clear();
+            State state = history.get(current);
+            moves.subList(state.numberOfGuesses, moves.size()).clear();
+            ratings.subList(state.numberOfRatings, ratings.size()).clear();
+        }
+    }
+
+    private void record() {
+        history.add(new State(this));
+        current = history.size() - 1;
+    }
+
+    private void restore(int index) {
+        State state = history.get(index);
+        numberOfMoves = state.numberOfMoves;
+        possibleCodes = state.possibleCodes;
+        codeSpace = state.codeSpace;
+        nextCandidate = state.nextCandidate;
+        bookNode = state.bookNode;
+        current = index;
+    }
+      
+    // codes before the last guess stay inconsistent, so the search resumes there
+    private ColorCode lazyMachineMove() {
+        int guess = codeSpace.firstConsistent(nextCandidate);
+        if (guess < 0) {
+            return null;
+        }
+        nextCandidate = guess;
+        ColorCode code = ColorCode.fromOrdinal(config, guess);
+        moves.add(code);
+        return code;
     }
       
     private void fillPossibleCodes() {
-        for (int i = 0; i < NO_POSSIBILITIES; ++i) {
-	        ColorCode colorCode = new ColorCode();
-	        int aux = i;
-	        for (byte j = MastermindGame.NUMBER_SLOTS - 1; j >= 0; --j) {
-	            colorCode.setColor(j, 
-	            		(byte) (aux % (int) MastermindGame.NUMBER_COLORS));
-	            aux /= MastermindGame.NUMBER_COLORS;
-	        }
-	        possibleCodes.add(colorCode);
-        }  	
-    }    
+        if (config.getNumberOfCodes() <= MAX_CANDIDATE_SET) {
+            possibleCodes = CodeUniverse.forConfig(config).allCandidates();
+        } else {
+            codeSpace = new CodeSpace(config);
+            nextCandidate = 0;
+        }
+    }
 }
@@ -0,0 +1,192 @@
+package mastermind.model;
+
+/**
+ * Dimensions of the board: the number of slots, colors and moves. The
+ * classic board is {@link #CLASSIC}, others are created at runtime, e.g. from
+ * system properties by {@link #fromSystemProperties()}.
+ */
+public final class GameConfig {
+
+    /**
+     * Largest supported number of slots.
+     */
+    public static final int MAX_SLOTS = 32 / ColorCode.BITS_PER_SLOT;
+
+    /**
+     * Largest supported number of colors.
+     */
+    public static final int MAX_COLORS = 1 << ColorCode.BITS_PER_SLOT;
+
+    /**
+     * The classic board with 4 slots, 6 colors and 7 moves.
+     */
+    public static final GameConfig CLASSIC = new GameConfig(
+            MastermindGame.NUMBER_SLOTS, MastermindGame.NUMBER_COLORS,
+            MastermindGame.MAX_MOVES);
+
+    /**
+     * System property holding the number of slots.
+     */
+    public static final String SLOTS_PROPERTY = "mastermind.slots";
+
+    /**
+     * System property holding the number of colors.
+     */
+    public static final String COLORS_PROPERTY = "mastermind.colors";
+
+    /**
+     * System property holding the maximum number of moves.
+     */
+    public static final String MOVES_PROPERTY = "mastermind.moves";
+
+    private final int slots;
+    private final int colors;
+    private final int maxMoves;
+    private final int numberOfCodes;
+    private final int slotLowBits;
+
+    /**
+     * Creates a board configuration.
+     *
+     * @param slots The number of slots, between 1 and {@link #MAX_SLOTS}.
+     * @param colors The number of colors, between 2 and {@link #MAX_COLORS}.
+     * @param maxMoves The maximum number of moves, at least 1.
+     * @throws IllegalArgumentException if a dimension is out of range or
+     *         there are more than {@link Integer#MAX_VALUE} codes.
+     */
+    public GameConfig(int slots, int colors, int maxMoves) {
+        if (slots < 1 || slots > MAX_SLOTS) {
+            throw new IllegalArgumentException("slots must be between 1 and "
+                    + MAX_SLOTS + ": " + slots);
+        }
+        if (colors < 2 || colors > MAX_COLORS) {
+            throw new IllegalArgumentException("colors must be between 2 and "
+                    + MAX_COLORS + ": " + colors);
+        }
+        if (maxMoves < 1) {
+            throw new IllegalArgumentException("moves must be positive: "
+                    + maxMoves);
+        }
+        long codes = 1;
+        for (int i = 0; i < slots; i++) {
+            codes *= colors;
+        }
+        if (codes > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("too many codes: " + codes);
+        }
+        this.slots = slots;
+        this.colors = colors;
+        this.maxMoves = maxMoves;
+        this.numberOfCodes = (int) codes;
+        this.slotLowBits = (int) (0x11111111L
+                & ((1L << (ColorCode.BITS_PER_SLOT * slots)) - 1));
+    }
+
+    /**
+     * Creates the configuration given by the system properties
+     * {@value #SLOTS_PROPERTY}, {@value #COLORS_PROPERTY} and
+     * {@value #MOVES_PROPERTY}. Missing properties are taken from
+     * {@link #CLASSIC}.
+     *
+     * @return The configuration.
+     * @throws IllegalArgumentException if a property is invalid.
+     */
+    public static GameConfig fromSystemProperties() {
+        return new GameConfig(
+                Integer.getInteger(SLOTS_PROPERTY, CLASSIC.slots),
+                Integer.getInteger(COLORS_PROPERTY, CLASSIC.colors),
+                Integer.getInteger(MOVES_PROPERTY, CLASSIC.maxMoves));
+    }
+
+    /**
+     * Gets the number of slots.
+     *
+     * @return The number of slots.
+     */
+    public int getSlots() {
+        return slots;
+    }
+
+    /**
+     * Gets the number of colors.
+     *
+     * @return The number of colors.
+     */
+    public int getColors() {
+        return colors;
+    }
+
+    /**
+     * Gets the maximum number of moves.
+     *
+     * @return The maximum number of moves.
+     */
+    public int getMaxMoves() {
+        return maxMoves;
+    }
+
+    /**
+     * Gets the number of different color codes.
+     *
+     * @return The number of codes.
+     */
+    public int getNumberOfCodes() {
+        return numberOfCodes;
+    }
+
+    /**
+     * Gets the number of different ratings, i.e. the upper bound of the
+     * rating ordinals on this board.
+     *
+     * @return The number of ratings.
+     */
+    public int getNumberOfRatings() {
+        return Rating.ordinalOf(0, slots + 1);
+    }
+
+    /**
+     * Checks whether another configuration has the same slots and colors,
+     * so that codes and ratings are interchangeable.
+     *
+     * @param other The other configuration.
+     * @return {@code true} if both boards have the same codes.
+     */
+    public boolean hasSameCodes(GameConfig other) {
+        return slots == other.slots && colors == other.colors;
+    }
+
+    // lowest bit of every slot in the packed codes
+    int getSlotLowBits() {
+        return slotLowBits;
+    }
+
+    /**
+     * Checks whether another object is the same configuration.
+     *
+     * @param o An object.
+     * @return {@code true} if all dimensions are equal
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof GameConfig)) {
+            return false;
+        }
+        GameConfig other = (GameConfig) o;
+        return hasSameCodes(other) && maxMoves == other.maxMoves;
+    }
+
+    @Override
+    public int hashCode() {
+        return (slots * 31 + colors) * 31 + maxMoves;
+    }
+
+    /**
+     * Returns the string representation of this configuration.
+     *
+     * @return The slots, colors and moves, e.g. {@code 4x6/7}.
+     */
+    @Override
+    public String toString() {
+        return slots + "x" + colors + "/" + maxMoves;
+    }
+}
@@ -0,0 +1,21 @@
+package mastermind.model;
+
+/**
+ * Receives the games which are over, see
+ * {@link Game#setGameListener(GameListener)}.
+ */
+@FunctionalInterface
+public interface GameListener {
+
+    /**
+     * Called when the secret was found or the last possible move was rated.
+     * Called on the thread playing the game, so it should return quickly.
+     * Each game is reported at most once: a game taken back by
+     * {@link Game#undo()} and finished again is not reported again, while a
+     * game created by {@link Game#branch(int, Rating)} is reported on its
+     * own.
+     *
+     * @param game The finished game.
+     */
+    void gameOver(MastermindGame game);
+}
@@ -0,0 +1,94 @@
+package mastermind.model;
+
+/**
+ * Policy used by the machine to choose its next guess.
+ *
+ * Strategies declare their cost so that callers can pick one fitting their
+ * latency budget. A strategy is selected by name, see {@link #forName(String)},
+ * either directly or through the system property {@value #PROPERTY}.
+ */
+public interface GuessStrategy {
+
+    /**
+     * System property naming the strategy used by default.
+     */
+    String PROPERTY = "mastermind.strategy";
+
+    /**
+     * Growth of the work done by a strategy, from cheapest to most expensive.
+     */
+    enum Cost {
+        /** No work at all. */
+        NONE,
+        /** Independent of the board size. */
+        CONSTANT,
+        /** Linear in the number of remaining candidates. */
+        LINEAR,
+        /** Number of codes times the number of remaining candidates. */
+        CODES_TIMES_CANDIDATES,
+        /** Quadratic in the number of codes. */
+        QUADRATIC
+    }
+
+    /**
+     * Determines the next guess.
+     *
+     * @param candidates The codes consistent with all ratings so far.
+     * @return The ordinal of the guess or -1 if there are no candidates.
+     */
+    int nextGuess(CandidateSet candidates);
+
+    /**
+     * Gets the name of this strategy, as accepted by {@link #forName(String)}.
+     *
+     * @return The name.
+     */
+    String getName();
+
+    /**
+     * Gets the one-time work done before the first guess.
+     *
+     * @return The cost of the precomputation.
+     */
+    Cost getPrecomputationCost();
+
+    /**
+     * Gets the work done for each guess.
+     *
+     * @return The cost of one turn.
+     */
+    Cost getTurnCost();
+
+    /**
+     * Returns the strategy with the given name.
+     *
+     * @param name One of {@code first}, {@code random}, {@code minimax} and
+     *        {@code entropy}.
+     * @return The strategy.
+     * @throws IllegalArgumentException if there is no such strategy.
+     */
+    static GuessStrategy forName(String name) {
+        switch (name) {
+            case FirstConsistentStrategy.NAME:
+                return new FirstConsistentStrategy();
+            case RandomConsistentStrategy.NAME:
+                return new RandomConsistentStrategy();
+            case MinimaxStrategy.NAME:
+                return new MinimaxStrategy();
+            case EntropyStrategy.NAME:
+                return new EntropyStrategy();
+            default:
+                throw new IllegalArgumentException("unknown strategy " + name);
+        }
+    }
+
+    /**
+     * Returns the strategy named by the system property {@value #PROPERTY},
+     * or the minimax strategy if it is not set.
+     *
+     * @return The strategy.
+     */
+    static GuessStrategy fromSystemProperty() {
+        return forName(System.getProperty(PROPERTY, MinimaxStrategy.NAME));
+    }
+}
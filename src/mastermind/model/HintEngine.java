@@ -0,0 +1,177 @@
+package mastermind.model;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Computes hints for a human guesser in the background: the number of codes
+ * still consistent with the ratings and a recommended next guess. Hints are
+ * computed one at a time on a thread of their own; a new request cancels the
+ * pending one, and results of requests overtaken by a newer one are dropped.
+ */
+public final class HintEngine implements AutoCloseable {
+
+    /**
+     * Name of the system property which turns the hints of the Swing
+     * interface off if set to {@code false}.
+     */
+    public static final String PROPERTY = "mastermind.hints";
+
+    private final GuessStrategy strategy;
+    private final HintListener listener;
+    private final ExecutorService executor;
+    private final AtomicLong generation = new AtomicLong();
+    private Future<?> pending;
+
+    /**
+     * A hint for the next guess.
+     */
+    public static final class Hint {
+        private final int moveCount;
+        private final int candidates;
+        private final ColorCode guess;
+
+        Hint(int moveCount, int candidates, ColorCode guess) {
+            this.moveCount = moveCount;
+            this.candidates = candidates;
+            this.guess = guess;
+        }
+
+        /**
+         * Gets the number of moves the hint was computed after.
+         *
+         * @return The number of moves.
+         */
+        public int getMoveCount() {
+            return moveCount;
+        }
+
+        /**
+         * Gets the number of codes consistent with all ratings.
+         *
+         * @return The number of candidates.
+         */
+        public int getCandidateCount() {
+            return candidates;
+        }
+
+        /**
+         * Gets the recommended next guess.
+         *
+         * @return The guess, {@code null} while it is being computed or if
+         *         no code is consistent.
+         */
+        public ColorCode getGuess() {
+            return guess;
+        }
+    }
+
+    /**
+     * Receives the hints. Called on the thread of the engine.
+     */
+    @FunctionalInterface
+    public interface HintListener {
+
+        /**
+         * Called when a hint is known. For each request this is called once
+         * with the number of candidates and once more with the recommended
+         * guess, unless the request is overtaken.
+         *
+         * @param hint The hint.
+         */
+        void hintReady(Hint hint);
+    }
+
+    /**
+     * Creates an engine.
+     *
+     * @param strategy The strategy which recommends the guesses.
+     * @param listener The receiver of the hints.
+     */
+    public HintEngine(GuessStrategy strategy, HintListener listener) {
+        this.strategy = strategy;
+        this.listener = listener;
+        executor = Executors.newSingleThreadExecutor(task -> {
+            Thread thread = new Thread(task, "hint-engine");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Requests hints for a game, cancelling the previous request. Only the
+     * rated guesses are copied on the calling thread; the candidates are
+     * filtered from them on the thread of the engine, so the game may go on
+     * meanwhile. Games on boards with more than
+     * {@link Game#MAX_CANDIDATE_SET} codes get no hints.
+     *
+     * @param game The game of the human guesser.
+     */
+    public synchronized void update(Game game) {
+        long request = generation.incrementAndGet();
+        if (pending != null) {
+            // a running partition search cannot be interrupted, its result
+            // is dropped instead
+            pending.cancel(true);
+        }
+        GameConfig config = game.getConfig();
+        if (config.getNumberOfCodes() > Game.MAX_CANDIDATE_SET) {
+            pending = null;
+            return;
+        }
+        int moveCount = game.getMoveCount();
+        int rated = game.getRatingCount();
+        int[] guesses = new int[rated];
+        int[] ratings = new int[rated];
+        for (int i = 0; i < rated; i++) {
+            guesses[i] = game.getColorCode(i).ordinal();
+            ratings[i] = game.getRating(i).ordinal();
+        }
+        pending = executor.submit(() -> {
+            CandidateSet candidates =
+                    CodeUniverse.forConfig(config).allCandidates();
+            for (int i = 0; i < rated; i++) {
+                if (Thread.currentThread().isInterrupted()) {
+                    return;
+                }
+                candidates = candidates.filter(guesses[i], ratings[i]);
+            }
+            publish(request, new Hint(moveCount, candidates.count(), null));
+            if (candidates.isEmpty()
+                    || Thread.currentThread().isInterrupted()) {
+                return;
+            }
+            int guess = strategy.nextGuess(candidates);
+            publish(request, new Hint(moveCount, candidates.count(),
+                    ColorCode.fromOrdinal(config, guess)));
+        });
+    }
+
+    /**
+     * Cancels the pending request without making a new one.
+     */
+    public synchronized void cancel() {
+        generation.incrementAndGet();
+        if (pending != null) {
+            pending.cancel(true);
+            pending = null;
+        }
+    }
+
+    /**
+     * Stops the engine.
+     */
+    @Override
+    public void close() {
+        cancel();
+        executor.shutdownNow();
+    }
+
+    private void publish(long request, Hint hint) {
+        if (generation.get() == request) {
+            listener.hintReady(hint);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package mastermind.model;
+
+import java.util.Arrays;
+
+/**
+ * Thrown when a rating contradicts the ratings given before, i.e. no code
+ * would produce all of them. Carries a minimal set of moves whose ratings
+ * contradict each other.
+ */
+public class InconsistentRatingsException extends IllegalArgumentException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int[] moves;
+
+    /**
+     * Creates the exception.
+     *
+     * @param moves The numbers of the conflicting moves, starting at 0, in
+     *        ascending order.
+     */
+    public InconsistentRatingsException(int[] moves) {
+        super(moves.length == 1
+                ? "the rating of move " + moves[0] + " is impossible"
+                : "the ratings of moves " + Arrays.toString(moves)
+                        + " contradict each other");
+        this.moves = moves.clone();
+    }
+
+    /**
+     * Gets the moves whose ratings contradict each other. Leaving out the
+     * rating of any one of them removes the contradiction.
+     *
+     * @return The move numbers, starting at 0, in ascending order.
+     */
+    public int[] getMoves() {
+        return moves.clone();
+    }
+}
@@ -6,20 +6,29 @@ package mastermind.model;
 public interface MastermindGame {
 
     /**
-     * Maximum number of moves.
+     * Maximum number of moves on the classic board, see
+     * {@link GameConfig#CLASSIC}.
      */
     byte MAX_MOVES = 7;
 
     /**
-     * Number of colors.
+     * Number of colors on the classic board.
      */
     byte NUMBER_COLORS = 6;
 
     /**
-     * Number of slots for the colors.
+     * Number of slots for the colors on the classic board.
      */
     byte NUMBER_SLOTS = 4;
 
+    /**
+     * Gets the board configuration of this game, i.e. the number of slots,
+     * colors and moves.
+     * 
+     * @return The board configuration.
+     */
+    GameConfig getConfig();
+
     /**
      * Determines who is guessing at the moment.
      * 
@@ -36,6 +45,14 @@ public interface MastermindGame {
      */
     int getMoveCount();
 
+    /**
+     * Returns the number of moves rated so far. While a machine guess waits
+     * for its rating, this is one less than {@link #getMoveCount()}.
+     *
+     * @return The number of ratings so far.
+     */
+    int getRatingCount();
+
     /**
      * Returns the color choice for move {@code moveNo}. Valid, irrespective
      * of human or machine guessing.
@@ -79,15 +96,23 @@ public interface MastermindGame {
      * 
      * @return The next color code guessed by the machine or {@code null}, if
      *         there is no admissible color code left (human has cheated by
-     *         declaring the black/white rating).
+     *         declaring the black/white rating). Implementations which reject
+     *         inconsistent ratings in {@link #eval(Rating)} always find a
+     *         code.
      */
     ColorCode machineMove();
 
     /**
      * Updates internal game state according to the human's rating for the last
      * color code guess by the machine. Only if the machine is guessing!
+     * A rating which contradicts the ratings before is rejected and the game
+     * stays as it was.
      * 
      * @param rating The rating in black and white spikes declared by the human.
+     * @throws InconsistentRatingsException if no code produces all ratings
+     *         including this one.
+     * @throws IllegalStateException if no machine guess waits for its
+     *         rating.
      */
     void eval(Rating rating);
 
@@ -0,0 +1,30 @@
+package mastermind.model;
+
+/**
+ * Knuth's minimax strategy: guesses the code whose worst rating leaves the
+ * fewest candidates.
+ */
+public final class MinimaxStrategy extends PartitionStrategy {
+
+    /**
+     * Name of this strategy.
+     */
+    public static final String NAME = "minimax";
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    double rate(int[] histogram, int candidates) {
+        int worst = 0;
+        for (int size : histogram) {
+            worst = Math.max(worst, size);
+        }
+        return worst;
+    }
+}
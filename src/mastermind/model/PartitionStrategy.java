@@ -0,0 +1,191 @@
+package mastermind.model;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Base of the strategies which rate a guess by how it partitions the
+ * remaining candidates by rating. Every code is tried as guess, the best
+ * rated one is chosen, candidates are preferred on ties, then the lowest
+ * ordinal. The guesses are scored in parallel on the common fork/join pool,
+ * each task reusing one histogram for all its guesses.
+ *
+ * On large boards the work per turn is bounded: the partitions are computed
+ * over a sample of the candidates and only a sample of the candidates is
+ * tried as guess.
+ */
+abstract class PartitionStrategy implements GuessStrategy {
+
+    // number of guesses scored by one fork/join task
+    private static final int GUESSES_PER_TASK = 32;
+
+    // maximum number of candidates the partitions are computed over
+    private static final int MAX_SECRETS = 1 << 12;
+
+    // maximum number of scores computed per turn
+    private static final long MAX_WORK = 1L << 22;
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public int nextGuess(CandidateSet candidates) {
+        if (candidates.count() <= 2) {
+            return candidates.next(0);
+        }
+        Turn turn = new Turn(candidates);
+        return ForkJoinPool.commonPool().invoke(
+                new GuessTask(this, turn, 0, turn.numberOfGuesses())).guess;
+    }
+
+    /**
+     * Rates the partition of the candidates by a guess.
+     *
+     * @param histogram The number of candidates per rating ordinal.
+     * @param candidates The total number of candidates.
+     * @return The rating of the guess, lower is better.
+     */
+    abstract double rate(int[] histogram, int candidates);
+
+    /**
+     * {@inheritDoc } The scores come from the {@link ScoreTable}.
+     */
+    @Override
+    public Cost getPrecomputationCost() {
+        return Cost.QUADRATIC;
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public Cost getTurnCost() {
+        return Cost.CODES_TIMES_CANDIDATES;
+    }
+
+    /**
+     * The guesses and secrets of one turn.
+     */
+    private static final class Turn {
+        private final GameConfig config;
+        private final CodeUniverse universe;
+        private final ScoreTable scores;
+        private final ScoringBackend backend;
+        private final CandidateSet candidates;
+        // ordinals if the scores are tabulated, packed codes otherwise
+        private final int[] secrets;
+        // ordinals of the guesses to try, null for all codes
+        private final int[] guesses;
+
+        Turn(CandidateSet candidates) {
+            this.candidates = candidates;
+            config = candidates.getConfig();
+            universe = candidates.getUniverse();
+            scores = universe.getScores();
+            backend = ScoringBackend.getDefault();
+            int[] sample = candidates.sample(MAX_SECRETS);
+            if (!scores.isTabulated()) {
+                for (int i = 0; i < sample.length; i++) {
+                    sample[i] = universe.packed(sample[i]);
+                }
+            }
+            secrets = sample;
+            long work = (long) config.getNumberOfCodes() * secrets.length;
+            guesses = work <= MAX_WORK ? null : candidates.sample(
+                    (int) Math.max(1, MAX_WORK / secrets.length));
+        }
+
+        int numberOfGuesses() {
+            return guesses == null ? config.getNumberOfCodes() : guesses.length;
+        }
+
+        int guess(int index) {
+            return guesses == null ? index : guesses[index];
+        }
+
+        // ratings is scratch space for the backend if scores are not tabulated
+        void partition(int guess, int[] histogram, int[] ratings) {
+            Arrays.fill(histogram, 0);
+            if (scores.isTabulated()) {
+                for (int secret : secrets) {
+                    histogram[scores.score(guess, secret)]++;
+                }
+            } else {
+                backend.countScores(config, universe.packed(guess), secrets,
+                        0, secrets.length, ratings, histogram);
+            }
+        }
+    }
+
+    private static final class Best {
+        private final int guess;
+        private final double rate;
+        private final boolean candidate;
+
+        Best(int guess, double rate, boolean candidate) {
+            this.guess = guess;
+            this.rate = rate;
+            this.candidate = candidate;
+        }
+
+        // guesses of the first are lower than those of the second
+        static Best of(Best first, Best second) {
+            if (first.rate < second.rate) {
+                return first;
+            } else if (second.rate < first.rate) {
+                return second;
+            }
+            return first.candidate || !second.candidate ? first : second;
+        }
+    }
+
+    /**
+     * Finds the best guess among the guesses [from, to) of a turn.
+     */
+    private static final class GuessTask extends RecursiveTask<Best> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final transient PartitionStrategy strategy;
+        private final transient Turn turn;
+        private final int from, to;
+
+        GuessTask(PartitionStrategy strategy, Turn turn, int from, int to) {
+            this.strategy = strategy;
+            this.turn = turn;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Best compute() {
+            if (to - from > GUESSES_PER_TASK) {
+                int mid = (from + to) >>> 1;
+                GuessTask left = new GuessTask(strategy, turn, from, mid);
+                left.fork();
+                Best right = new GuessTask(strategy, turn, mid, to).compute();
+                return Best.of(left.join(), right);
+            }
+            int[] histogram = new int[turn.config.getNumberOfRatings()];
+            int[] ratings = turn.scores.isTabulated() ? null
+                    : new int[turn.secrets.length];
+            int bestGuess = -1;
+            double bestRate = Double.POSITIVE_INFINITY;
+            boolean bestCandidate = false;
+            for (int index = from; index < to; index++) {
+                int guess = turn.guess(index);
+                turn.partition(guess, histogram, ratings);
+                double rate = strategy.rate(histogram, turn.secrets.length);
+                boolean candidate = turn.candidates.contains(guess);
+                if (rate < bestRate
+                        || rate == bestRate && candidate && !bestCandidate) {
+                    bestGuess = guess;
+                    bestRate = rate;
+                    bestCandidate = candidate;
+                }
+            }
+            return new Best(bestGuess, bestRate, bestCandidate);
+        }
+    }
+}
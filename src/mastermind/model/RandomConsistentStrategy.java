@@ -0,0 +1,50 @@
+package mastermind.model;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Guesses a consistent code chosen uniformly at random.
+ */
+public final class RandomConsistentStrategy implements GuessStrategy {
+
+    /**
+     * Name of this strategy.
+     */
+    public static final String NAME = "random";
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public int nextGuess(CandidateSet candidates) {
+        if (candidates.isEmpty()) {
+            return -1;
+        }
+        return candidates.get(
+                ThreadLocalRandom.current().nextInt(candidates.count()));
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public Cost getPrecomputationCost() {
+        return Cost.NONE;
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public Cost getTurnCost() {
+        return Cost.LINEAR;
+    }
+}
@@ -2,74 +2,136 @@ package mastermind.model;
 
 /**
  * class Rating.
+ *
+ * There is exactly one instance per valid pair of black and white spikes,
+ * obtained by {@link #valueOf(int, int)}. Each rating has a dense ordinal
+ * which can be used as an array index.
  */
-public class Rating {
+public final class Rating {
+
+    /**
+     * Number of different ratings on the largest board, i.e. the upper bound
+     * of all ordinals. See {@link GameConfig#getNumberOfRatings()} for a
+     * given board.
+     */
+    public static final int NUMBER_RATINGS =
+            ordinalOf(0, GameConfig.MAX_SLOTS + 1);
+
+    private static final Rating[] RATINGS = createRatings();
 
     private final int blackNumber, whiteNumber;
-    
+    private final int ordinal;
+
+    private Rating(int black, int white) {
+        blackNumber = black;
+        whiteNumber = white;
+        ordinal = ordinalOf(black, white);
+    }
+
     /**
-     * Creates a new rating and sets the black and white numbers.
-     * 
+     * Returns the rating with the given black and white numbers.
+     *
      * @param black the black spikes number.
      * @param white the white spikes number.
+     * @return The rating.
+     * @throws IllegalArgumentException if there is no such rating.
      */
-    public Rating(int black, int white) {
-        blackNumber = black;
-        whiteNumber = white;
+    public static Rating valueOf(int black, int white) {
+        if (black < 0 || white < 0
+                || black + white > GameConfig.MAX_SLOTS) {
+            throw new IllegalArgumentException("no rating with " + black
+                    + " black and " + white + " white spikes");
+        }
+        return RATINGS[ordinalOf(black, white)];
+    }
+
+    /**
+     * Returns the rating with the given ordinal.
+     *
+     * @param ordinal The ordinal, between 0 and {@link #NUMBER_RATINGS} - 1.
+     * @return The rating.
+     */
+    public static Rating fromOrdinal(int ordinal) {
+        return RATINGS[ordinal];
     }
+
+    /**
+     * Computes the ordinal of a rating. Ratings are numbered by the total of
+     * spikes first and by the black spikes second, so the ordinals of all
+     * ratings with at most {@code n} spikes are dense.
+     *
+     * @param black the black spikes number.
+     * @param white the white spikes number.
+     * @return The ordinal.
+     */
+    public static int ordinalOf(int black, int white) {
+        int total = black + white;
+        return total * (total + 1) / 2 + black;
+    }
+
+    private static Rating[] createRatings() {
+        Rating[] ratings = new Rating[NUMBER_RATINGS];
+        for (int black = 0; black <= GameConfig.MAX_SLOTS; black++) {
+            for (int white = 0; black + white <= GameConfig.MAX_SLOTS;
+                    white++) {
+                Rating rating = new Rating(black, white);
+                ratings[rating.ordinal] = rating;
+            }
+        }
+        return ratings;
+    }
+
     /**
      * Gets the the number of black spikes.
-     * 
+     *
      * @return The rating in the number of black spikes.
      */
     public int getBlack() {
         return blackNumber;
     }
-    
+
     /**
      * Gets the the number of white spikes.
-     * 
+     *
      * @return The rating in the number of white spikes.
      */
     public int getWhite() {
         return whiteNumber;
     }
-    
+
+    /**
+     * Gets the ordinal of this rating, see {@link #ordinalOf(int, int)}.
+     *
+     * @return The ordinal.
+     */
+    public int ordinal() {
+        return ordinal;
+    }
+
     /**
 	 * Returns the string representation of this rating.
-	 * 
+	 *
 	 * @return The string representation of this rating.
 	 */
     @Override
     public String toString() {
-    	return "black: " + getBlack() + " white: " + getWhite();  	
+    	return "black: " + getBlack() + " white: " + getWhite();
     }
-    
+
     /**
      * Checks whether another object is similar to this one
-     * 
+     *
      * @param o An object.
      * @return {code true} if the other object is equivalence to this object
      */
     @Override
     public boolean equals(Object o) {
-        if (this == o) {
-        	return true;
-        } else if (o == null) {
-        	return false;
-        } else {
-        	Rating rate = (Rating) o;
-        	return this.toString().equals(rate.toString()); 	
-        }       
+        return o instanceof Rating && ((Rating) o).ordinal == ordinal;
     }
-    
+
     @Override
     public int hashCode() {
-        int hash = 3;
-        hash = 31 * hash + blackNumber;
-        hash = 31 * hash + whiteNumber;
-        return hash;
+        return ordinal;
     }
 
 }
-
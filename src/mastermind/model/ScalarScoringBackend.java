@@ -0,0 +1,40 @@
+package mastermind.model;
+
+/**
+ * Scores the secrets one by one with the bulk methods of {@link ColorCode}.
+ */
+public final class ScalarScoringBackend implements ScoringBackend {
+
+    // initialized on first access of DEFAULT, the JVM guarantees it happens
+    // once
+    static final class Holder {
+        static final ScoringBackend DEFAULT = ScoringBackend.forName(
+                System.getProperty(PROPERTY, SCALAR));
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public void score(GameConfig config, int guess, int[] secrets, int from,
+            int to, int[] ratings) {
+        ColorCode.score(config, guess, secrets, from, to, ratings, from);
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public void countScores(GameConfig config, int guess, int[] secrets,
+            int from, int to, int[] ratings, int[] histogram) {
+        ColorCode.countScores(config, guess, secrets, from, to, histogram);
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public String getName() {
+        return SCALAR;
+    }
+}
@@ -0,0 +1,89 @@
+package mastermind.model;
+
+import java.util.stream.IntStream;
+
+/**
+ * Table of the scores of every guess against every secret, indexed by code
+ * ordinals. There is one table per board, held by its {@link CodeUniverse},
+ * built on first use, once per JVM, and shared by all games. Boards with too
+ * many codes are scored on the fly instead.
+ */
+public final class ScoreTable {
+
+    /**
+     * Maximum number of table entries (one byte each).
+     */
+    static final long MAX_ENTRIES = 1L << 24;
+
+    private final GameConfig config;
+    private final CodeUniverse universe;
+    private final byte[] table;
+
+    ScoreTable(CodeUniverse universe) {
+        this.universe = universe;
+        config = universe.getConfig();
+        long codes = config.getNumberOfCodes();
+        table = codes * codes <= MAX_ENTRIES ? build(universe) : null;
+    }
+
+    /**
+     * Returns the table for a board, building it on the first call, see
+     * {@link CodeUniverse#getScores()}.
+     *
+     * @param config The board configuration.
+     * @return The score table.
+     */
+    public static ScoreTable forConfig(GameConfig config) {
+        return CodeUniverse.forConfig(config).getScores();
+    }
+
+    /**
+     * Gets the board configuration of this table.
+     *
+     * @return The board configuration.
+     */
+    public GameConfig getConfig() {
+        return config;
+    }
+
+    /**
+     * Determines whether the scores are looked up rather than computed.
+     *
+     * @return {@code true} if the board is small enough for the table.
+     */
+    public boolean isTabulated() {
+        return table != null;
+    }
+
+    /**
+     * Scores two codes given by their ordinals.
+     *
+     * @param guess The ordinal of the guessed code.
+     * @param secret The ordinal of the secret code.
+     * @return The ordinal of the rating, see {@link Rating#ordinal()}.
+     */
+    public int score(int guess, int secret) {
+        if (table != null) {
+            return table[guess * config.getNumberOfCodes() + secret];
+        }
+        return ColorCode.score(config, universe.packed(guess),
+                universe.packed(secret));
+    }
+
+    private static byte[] build(CodeUniverse universe) {
+        GameConfig config = universe.getConfig();
+        ScoringBackend backend = ScoringBackend.getDefault();
+        int[] packed = universe.packedCodes();
+        int codes = packed.length;
+        byte[] table = new byte[codes * codes];
+        IntStream.range(0, codes).parallel().forEach(guess -> {
+            int[] ratings = new int[codes];
+            backend.score(config, packed[guess], packed, 0, codes, ratings);
+            int row = guess * codes;
+            for (int secret = 0; secret < codes; secret++) {
+                table[row + secret] = (byte) ratings[secret];
+            }
+        });
+        return table;
+    }
+}
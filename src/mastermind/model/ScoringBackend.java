@@ -0,0 +1,114 @@
+package mastermind.model;
+
+/**
+ * Scores one guess against many secrets at once. This is the inner loop of
+ * building the {@link ScoreTable} and of the partition strategies on boards
+ * without a table.
+ *
+ * A backend is selected once, at startup, by the system property
+ * {@value #PROPERTY}, see {@link #getDefault()}. The {@code vector} backend
+ * uses the incubating Vector API and needs the JVM option
+ * {@code --add-modules jdk.incubator.vector} and the {@code simd} sources;
+ * without them the scalar backend is used.
+ */
+public interface ScoringBackend {
+
+    /**
+     * System property naming the backend used by default.
+     */
+    String PROPERTY = "mastermind.scoring";
+
+    /**
+     * Name of the scalar backend, always available.
+     */
+    String SCALAR = "scalar";
+
+    /**
+     * Name of the backend based on the Vector API.
+     */
+    String VECTOR = "vector";
+
+    /**
+     * Scores a guess against the secrets {@code secrets[from]} to
+     * {@code secrets[to - 1]}, writing the rating ordinals to the same
+     * positions of {@code ratings}.
+     *
+     * @param config The board configuration.
+     * @param guess The packed guessed code.
+     * @param secrets The packed secret codes.
+     * @param from The first position, inclusive.
+     * @param to The last position, exclusive.
+     * @param ratings The array receiving the ordinals of the ratings, see
+     *        {@link Rating#ordinal()}.
+     */
+    void score(GameConfig config, int guess, int[] secrets, int from, int to,
+            int[] ratings);
+
+    /**
+     * Scores a guess against the secrets {@code secrets[from]} to
+     * {@code secrets[to - 1]} and adds 1 to {@code histogram[r]} for each
+     * secret scoring {@code r}. The default scores into {@code ratings} and
+     * counts them.
+     *
+     * @param config The board configuration.
+     * @param guess The packed guessed code.
+     * @param secrets The packed secret codes.
+     * @param from The first position, inclusive.
+     * @param to The last position, exclusive.
+     * @param ratings Scratch space, at least {@code to} long.
+     * @param histogram The counts per rating ordinal.
+     */
+    default void countScores(GameConfig config, int guess, int[] secrets,
+            int from, int to, int[] ratings, int[] histogram) {
+        score(config, guess, secrets, from, to, ratings);
+        for (int i = from; i < to; i++) {
+            histogram[ratings[i]]++;
+        }
+    }
+
+    /**
+     * Gets the name of this backend, as accepted by
+     * {@link #forName(String)}.
+     *
+     * @return The name.
+     */
+    String getName();
+
+    /**
+     * Returns the backend with the given name. If the vector backend is not
+     * available, the scalar backend is returned instead.
+     *
+     * @param name {@code scalar} or {@code vector}.
+     * @return The backend.
+     * @throws IllegalArgumentException if there is no such backend.
+     */
+    static ScoringBackend forName(String name) {
+        switch (name) {
+            case SCALAR:
+                return new ScalarScoringBackend();
+            case VECTOR:
+                try {
+                    // loaded reflectively, it needs an incubator module
+                    return (ScoringBackend) Class.forName(
+                            "mastermind.simd.VectorScoringBackend")
+                            .getDeclaredConstructor().newInstance();
+                } catch (ReflectiveOperationException | LinkageError e) {
+                    return new ScalarScoringBackend();
+                }
+            default:
+                throw new IllegalArgumentException("unknown scoring backend "
+                        + name);
+        }
+    }
+
+    /**
+     * Returns the backend named by the system property {@value #PROPERTY},
+     * or the scalar backend if it is not set. The backend is selected on the
+     * first call only.
+     *
+     * @return The backend.
+     */
+    static ScoringBackend getDefault() {
+        return ScalarScoringBackend.Holder.DEFAULT;
+    }
+}
@@ -0,0 +1,401 @@
+package mastermind.server;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import mastermind.log.GameLog;
+import mastermind.metrics.GameMetrics;
+import mastermind.model.ColorCode;
+import mastermind.model.Game;
+import mastermind.model.GameConfig;
+import mastermind.model.GuessStrategy;
+import mastermind.model.MastermindGame;
+import mastermind.model.Rating;
+import mastermind.model.ScoreTable;
+import mastermind.session.GameSessionManager;
+
+/**
+ * HTTP service for playing games without the Swing interface. Every request
+ * is handled on its own virtual thread. All games share the score table of
+ * the board, which is built when the server starts.
+ *
+ * Codes are written as one hexadecimal digit per slot, e.g. {@code 0123}.
+ * The operations, answered in JSON:
+ * <ul>
+ * <li>{@code POST /games?machine=true} starts a game, the machine guessing
+ * if {@code machine} is {@code true}</li>
+ * <li>{@code GET /games/{id}} returns the state of a game</li>
+ * <li>{@code POST /games/{id}/guess?code=0123} rates a human guess</li>
+ * <li>{@code POST /games/{id}/machine-move} returns the next machine
+ * guess</li>
+ * <li>{@code POST /games/{id}/eval?black=1&white=2} rates the last machine
+ * guess</li>
+ * <li>{@code DELETE /games/{id}} ends a game</li>
+ * </ul>
+ */
+public final class GameServer {
+
+    /**
+     * Maximum number of games kept by {@link #main(String[])}.
+     */
+    public static final int MAX_SESSIONS = 100_000;
+
+    /**
+     * Maximum estimated heap of the games kept by {@link #main(String[])}.
+     */
+    public static final long MAX_SESSION_MEMORY = 256L << 20;
+
+    /**
+     * Time after which {@link #main(String[])} drops an unused game.
+     */
+    public static final Duration IDLE_TIMEOUT = Duration.ofMinutes(30);
+
+    private static final String CONTEXT = "/games";
+
+    private final GameConfig config;
+    private final GuessStrategy strategy;
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final GameSessionManager sessions;
+    private final GameLog log;
+
+    /**
+     * Thrown for requests that cannot be served, carrying the HTTP status.
+     */
+    private static final class RequestException extends Exception {
+        private static final long serialVersionUID = 1L;
+        final int status;
+
+        RequestException(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+
+    /**
+     * Creates a server, not yet started.
+     *
+     * @param address The address to listen on.
+     * @param config The board of the games.
+     * @param strategy The strategy of the machine guesser.
+     * @param sessions The manager holding the games.
+     * @throws IOException if the address cannot be bound.
+     */
+    public GameServer(InetSocketAddress address, GameConfig config,
+            GuessStrategy strategy, GameSessionManager sessions)
+            throws IOException {
+        this(address, config, strategy, sessions, null);
+    }
+
+    /**
+     * Creates a server, not yet started, which logs the finished games.
+     *
+     * @param address The address to listen on.
+     * @param config The board of the games.
+     * @param strategy The strategy of the machine guesser.
+     * @param sessions The manager holding the games.
+     * @param log The log of the finished games, closed when the server
+     *        stops, or {@code null}.
+     * @throws IOException if the address cannot be bound.
+     */
+    public GameServer(InetSocketAddress address, GameConfig config,
+            GuessStrategy strategy, GameSessionManager sessions, GameLog log)
+            throws IOException {
+        this.config = config;
+        this.strategy = strategy;
+        this.sessions = sessions;
+        this.log = log;
+        server = HttpServer.create(address, 0);
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        server.setExecutor(executor);
+        server.createContext(CONTEXT, this::handle);
+    }
+
+    /**
+     * Starts serving requests.
+     */
+    public void start() {
+        ScoreTable.forConfig(config);
+        server.start();
+    }
+
+    /**
+     * Stops the server, waiting at most {@code delay} seconds for running
+     * requests.
+     *
+     * @param delay The maximum time to wait in seconds.
+     */
+    public void stop(int delay) {
+        server.stop(delay);
+        executor.shutdown();
+        sessions.close();
+        if (log != null) {
+            try {
+                log.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException("cannot close game log", e);
+            }
+        }
+    }
+
+    /**
+     * Gets the address the server listens on.
+     *
+     * @return The address.
+     */
+    public InetSocketAddress getAddress() {
+        return server.getAddress();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        int status = 200;
+        String body;
+        try {
+            body = dispatch(exchange);
+        } catch (RequestException e) {
+            status = e.status;
+            body = error(e.getMessage());
+        } catch (NoSuchElementException e) {
+            status = 404;
+            body = error(e.getMessage());
+        } catch (IllegalArgumentException e) {
+            status = 400;
+            body = error(e.getMessage());
+        } catch (IllegalStateException e) {
+            status = 409;
+            body = error(e.getMessage());
+        } catch (RuntimeException e) {
+            status = 500;
+            body = error(e.toString());
+        }
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private String dispatch(HttpExchange exchange) throws RequestException {
+        URI uri = exchange.getRequestURI();
+        String method = exchange.getRequestMethod();
+        Map<String, String> query = parseQuery(uri.getRawQuery());
+        // "", "/{id}" or "/{id}/{operation}"; the context matches any path
+        // starting with it, like "/gamesxyz"
+        String rest = uri.getPath().substring(CONTEXT.length());
+        if (!rest.isEmpty() && !rest.startsWith("/")) {
+            throw new RequestException(404, "no resource " + uri.getPath());
+        }
+        String[] path = rest.split("/");
+        if (path.length <= 1) {
+            requireMethod(method, "POST");
+            return newGame(Boolean.parseBoolean(query.get("machine")));
+        }
+        String operation = path.length > 2 ? path[2] : "";
+        if (operation.isEmpty() && method.equals("DELETE")) {
+            if (!sessions.remove(path[1])) {
+                throw new RequestException(404, "no game " + path[1]);
+            }
+            return "{}";
+        }
+        return sessions.withGame(path[1], game -> {
+            switch (operation) {
+                case "":
+                    requireMethod(method, "GET");
+                    return state(game);
+                case "guess":
+                    requireMethod(method, "POST");
+                    return guess(game, parseCode(query.get("code")));
+                case "machine-move":
+                    requireMethod(method, "POST");
+                    return machineMove(game);
+                case "eval":
+                    requireMethod(method, "POST");
+                    return eval(game, Rating.valueOf(
+                            parseInt(query.get("black")),
+                            parseInt(query.get("white"))));
+                default:
+                    throw new RequestException(404, "no operation "
+                            + operation);
+            }
+        });
+    }
+
+    private String newGame(boolean machineGuessing) {
+        Game game = new Game(config, machineGuessing, strategy);
+        game.setGameListener(log);
+        String id = sessions.create(game);
+        return "{\"id\":\"" + id + "\",\"slots\":" + config.getSlots()
+                + ",\"colors\":" + config.getColors() + ",\"maxMoves\":"
+                + config.getMaxMoves() + "}";
+    }
+
+    private String state(MastermindGame game) {
+        return "{\"machineGuessing\":" + game.isMachineGuessing()
+                + ",\"moves\":" + game.getMoveCount() + "}";
+    }
+
+    private String guess(MastermindGame game, ColorCode code)
+            throws RequestException {
+        if (game.isMachineGuessing()) {
+            throw new RequestException(409, "the machine is guessing");
+        }
+        if (isOver(game)) {
+            throw new RequestException(409, "the game is over");
+        }
+        Rating rating = game.humanMove(code);
+        String secret = rating.getBlack() == config.getSlots()
+                || game.getMoveCount() == config.getMaxMoves()
+                ? ",\"secret\":\"" + formatCode(game.getSecret()) + "\"" : "";
+        return "{\"move\":" + game.getMoveCount() + ",\"black\":"
+                + rating.getBlack() + ",\"white\":" + rating.getWhite()
+                + secret + "}";
+    }
+
+    private String machineMove(MastermindGame game) throws RequestException {
+        if (!game.isMachineGuessing()) {
+            throw new RequestException(409, "the human is guessing");
+        }
+        if (isOver(game)) {
+            throw new RequestException(409, "the game is over");
+        }
+        if (game.getMoveCount() > game.getRatingCount()) {
+            throw new RequestException(409, "the last guess is not rated");
+        }
+        ColorCode code = game.machineMove();
+        if (code == null) {
+            throw new RequestException(409, "inconsistent ratings");
+        }
+        return "{\"move\":" + game.getMoveCount() + ",\"code\":\""
+                + formatCode(code) + "\"}";
+    }
+
+    private String eval(MastermindGame game, Rating rating)
+            throws RequestException {
+        if (!game.isMachineGuessing()) {
+            throw new RequestException(409, "the human is guessing");
+        }
+        // a rating without a guess waiting is rejected by the game
+        game.eval(rating);
+        return "{\"move\":" + game.getMoveCount() + "}";
+    }
+
+    // whether the secret was found or the last possible move was rated
+    private boolean isOver(MastermindGame game) {
+        int rated = game.getRatingCount();
+        return rated >= config.getMaxMoves() || rated > 0
+                && game.getRating(rated - 1).getBlack() == config.getSlots();
+    }
+
+    private static void requireMethod(String method, String expected)
+            throws RequestException {
+        if (!method.equals(expected)) {
+            throw new RequestException(405, expected + " expected");
+        }
+    }
+
+    private ColorCode parseCode(String text) {
+        if (text == null || text.length() != config.getSlots()) {
+            throw new IllegalArgumentException("code of " + config.getSlots()
+                    + " digits expected");
+        }
+        int[] colors = new int[config.getSlots()];
+        for (int i = 0; i < colors.length; i++) {
+            colors[i] = Character.digit(text.charAt(i), 16);
+            if (colors[i] < 0 || colors[i] >= config.getColors()) {
+                throw new IllegalArgumentException("invalid color "
+                        + text.charAt(i));
+            }
+        }
+        return new ColorCode(config, colors);
+    }
+
+    private static String formatCode(ColorCode code) {
+        StringBuilder text = new StringBuilder();
+        for (int color : code.toIntArray()) {
+            text.append(Character.forDigit(color, 16));
+        }
+        return text.toString();
+    }
+
+    private static int parseInt(String text) {
+        if (text == null) {
+            throw new IllegalArgumentException("missing number");
+        }
+        return Integer.parseInt(text);
+    }
+
+    private static Map<String, String> parseQuery(String query) {
+        Map<String, String> parameters = new HashMap<>();
+        if (query != null) {
+            for (String parameter : query.split("&")) {
+                int split = parameter.indexOf('=');
+                if (split > 0) {
+                    parameters.put(parameter.substring(0, split),
+                            parameter.substring(split + 1));
+                }
+            }
+        }
+        return parameters;
+    }
+
+    private static String error(String message) {
+        return "{\"error\":\"" + escape(String.valueOf(message)) + "\"}";
+    }
+
+    // the text as content of a JSON string
+    private static String escape(String text) {
+        StringBuilder escaped = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '"' || c == '\\') {
+                escaped.append('\\').append(c);
+            } else if (c < 0x20) {
+                escaped.append(String.format("\\u%04x", (int) c));
+            } else {
+                escaped.append(c);
+            }
+        }
+        return escaped.toString();
+    }
+
+    /**
+     * Runs a server on localhost. The board and strategy are taken from the
+     * system properties, see {@link GameConfig#fromSystemProperties()} and
+     * {@link GuessStrategy#fromSystemProperty()}. At most
+     * {@link #MAX_SESSIONS} games using {@link #MAX_SESSION_MEMORY} bytes are
+     * kept, games idle for {@link #IDLE_TIMEOUT} are dropped. Finished games
+     * are logged if {@link GameLog#PROPERTY} names a directory. The
+     * {@link GameMetrics} are registered as MBean.
+     *
+     * @param args Optionally the port, 8080 by default.
+     * @throws IOException if the port cannot be bound.
+     */
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 8080;
+        GameConfig config = GameConfig.fromSystemProperties();
+        GameMetrics.register();
+        GameServer server = new GameServer(
+                new InetSocketAddress("localhost", port), config,
+                GuessStrategy.fromSystemProperty(),
+                new GameSessionManager(MAX_SESSIONS, MAX_SESSION_MEMORY,
+                        IDLE_TIMEOUT),
+                GameLog.fromSystemProperty(config));
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> server.stop(0)));
+        server.start();
+        System.out.println("serving games on " + server.getAddress());
+    }
+}
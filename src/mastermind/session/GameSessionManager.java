@@ -0,0 +1,348 @@
+package mastermind.session;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+import mastermind.model.Game;
+import mastermind.model.MastermindGame;
+
+/**
+ * Holds the running games of many players by id. Lookups go through a
+ * concurrent map without global locking; the operations on one game are
+ * serialized by a lock of its own. The order of use is kept in an
+ * access-ordered map under a short global lock, so the least recently used
+ * session is found in constant time. A session is moved in that order at
+ * most once per {@link #ORDER_INTERVAL} nanoseconds, so frequent operations
+ * on a game rarely take the global lock.
+ *
+ * The footprint is bounded in three ways: by the number of sessions, by the
+ * estimated heap of all games (see {@link Game#estimateMemoryUsage()}), and by
+ * retiring sessions idle for longer than a timeout. When a new session or a
+ * grown game exceeds a limit, the least recently used sessions are evicted
+ * before {@link #create(MastermindGame)} or
+ * {@link #withGame(String, GameAction)} returns. Sessions in the middle of an
+ * operation are skipped, so the limits are only exceeded while all other
+ * sessions are in use.
+ */
+public final class GameSessionManager implements AutoCloseable {
+
+    /**
+     * Estimated size of games whose implementation gives no estimate.
+     */
+    static final long DEFAULT_GAME_SIZE = 1024;
+
+    /**
+     * Time in nanoseconds after which an operation on a session moves it to
+     * the end of the order of use again.
+     */
+    static final long ORDER_INTERVAL = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final int capacity;
+    private final long memoryLimit;
+    private final long idleTimeout;
+    private final Map<String, Session> sessions = new ConcurrentHashMap<>();
+    private final AtomicLong nextId = new AtomicLong();
+    private final AtomicLong memoryUsage = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    // the sessions from least to most recently used, guarded by orderLock;
+    // sessions are added and removed under the lock in both maps
+    private final Map<String, Session> order =
+            new LinkedHashMap<>(16, 0.75f, true);
+    private final ReentrantLock orderLock = new ReentrantLock();
+    private final ScheduledExecutorService reaper;
+
+    /**
+     * An operation on the game of a session.
+     *
+     * @param <T> The type of the result.
+     * @param <E> The type of the exception thrown by the operation.
+     */
+    @FunctionalInterface
+    public interface GameAction<T, E extends Exception> {
+
+        /**
+         * Performs the operation, holding the lock of the session.
+         *
+         * @param game The game of the session.
+         * @return The result.
+         * @throws E if the operation fails.
+         */
+        T apply(MastermindGame game) throws E;
+    }
+
+    /**
+     * A game with its lock, last access time, time it was last moved in the
+     * order of use and last size estimate. A lock is used rather than
+     * synchronized, which would pin virtual threads.
+     */
+    private static final class Session {
+        final MastermindGame game;
+        final ReentrantLock lock = new ReentrantLock();
+        volatile long lastAccess;
+        volatile long lastOrdered;
+        long size;
+
+        Session(MastermindGame game) {
+            this.game = game;
+            lastAccess = System.nanoTime();
+            lastOrdered = lastAccess;
+        }
+    }
+
+    /**
+     * Creates a manager.
+     *
+     * @param capacity The maximum number of sessions.
+     * @param memoryLimit The maximum estimated heap of all games in bytes.
+     * @param idleTimeout The time after which an unused session is retired,
+     *        or {@code null} to keep idle sessions until a limit is reached.
+     */
+    public GameSessionManager(int capacity, long memoryLimit,
+            Duration idleTimeout) {
+        if (capacity <= 0 || memoryLimit <= 0) {
+            throw new IllegalArgumentException("limits must be positive");
+        }
+        this.capacity = capacity;
+        this.memoryLimit = memoryLimit;
+        if (idleTimeout == null) {
+            this.idleTimeout = Long.MAX_VALUE;
+            reaper = null;
+        } else {
+            this.idleTimeout = idleTimeout.toNanos();
+            reaper = Executors.newSingleThreadScheduledExecutor(task -> {
+                Thread thread = new Thread(task, "session-reaper");
+                thread.setDaemon(true);
+                return thread;
+            });
+            long period = Math.max(1, idleTimeout.toMillis() / 2);
+            reaper.scheduleWithFixedDelay(this::evictIdle, period, period,
+                    TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Adds a game as a new session, evicting the least recently used
+     * sessions if a limit is exceeded.
+     *
+     * @param game The game.
+     * @return The id of the session.
+     */
+    public String create(MastermindGame game) {
+        String id = Long.toHexString(nextId.incrementAndGet());
+        Session session = new Session(game);
+        session.size = sizeOf(game);
+        memoryUsage.addAndGet(session.size);
+        orderLock.lock();
+        try {
+            sessions.put(id, session);
+            order.put(id, session);
+            evictLeastRecentlyUsed(id);
+        } finally {
+            orderLock.unlock();
+        }
+        return id;
+    }
+
+    /**
+     * Performs an operation on the game of a session. Operations on the same
+     * session are serialized. The size of the game is estimated again
+     * afterwards, and other sessions are evicted if the memory limit is
+     * exceeded.
+     *
+     * @param <T> The type of the result.
+     * @param <E> The type of the exception thrown by the operation.
+     * @param id The id of the session.
+     * @param action The operation.
+     * @return The result of the operation.
+     * @throws E if the operation fails.
+     * @throws NoSuchElementException if there is no such session.
+     */
+    public <T, E extends Exception> T withGame(String id,
+            GameAction<T, E> action) throws E {
+        Session session = sessions.get(id);
+        if (session == null) {
+            throw new NoSuchElementException("no game " + id);
+        }
+        long now = System.nanoTime();
+        session.lastAccess = now;
+        if (now - session.lastOrdered > ORDER_INTERVAL) {
+            orderLock.lock();
+            try {
+                // moves the session to the end unless it was evicted
+                order.get(id);
+                session.lastOrdered = now;
+            } finally {
+                orderLock.unlock();
+            }
+        }
+        session.lock.lock();
+        try {
+            return action.apply(session.game);
+        } finally {
+            long size = sizeOf(session.game);
+            // an evicted session is no longer accounted
+            if (sessions.get(id) == session) {
+                memoryUsage.addAndGet(size - session.size);
+                session.size = size;
+            }
+            session.lock.unlock();
+            if (memoryUsage.get() > memoryLimit) {
+                orderLock.lock();
+                try {
+                    evictLeastRecentlyUsed(id);
+                } finally {
+                    orderLock.unlock();
+                }
+            }
+        }
+    }
+
+    /**
+     * Checks whether a session exists.
+     *
+     * @param id The id of the session.
+     * @return {@code true} if the session exists.
+     */
+    public boolean contains(String id) {
+        return sessions.containsKey(id);
+    }
+
+    /**
+     * Ends a session.
+     *
+     * @param id The id of the session.
+     * @return {@code true} if the session existed.
+     */
+    public boolean remove(String id) {
+        Session session;
+        orderLock.lock();
+        try {
+            session = sessions.remove(id);
+            order.remove(id);
+        } finally {
+            orderLock.unlock();
+        }
+        if (session == null) {
+            return false;
+        }
+        release(session);
+        return true;
+    }
+
+    /**
+     * Gets the number of sessions.
+     *
+     * @return The number of sessions.
+     */
+    public int size() {
+        return sessions.size();
+    }
+
+    /**
+     * Gets the estimated heap of all games.
+     *
+     * @return The estimated size in bytes.
+     */
+    public long getMemoryUsage() {
+        return memoryUsage.get();
+    }
+
+    /**
+     * Gets the number of sessions evicted so far, for idleness or to stay
+     * within the limits.
+     *
+     * @return The number of evictions.
+     */
+    public long getEvictionCount() {
+        return evictions.get();
+    }
+
+    /**
+     * Retires all sessions idle for longer than the timeout. Called
+     * periodically if there is a timeout.
+     */
+    public void evictIdle() {
+        long now = System.nanoTime();
+        orderLock.lock();
+        try {
+            // the sessions after the first one not idle were used later, up
+            // to ORDER_INTERVAL before it
+            Iterator<Map.Entry<String, Session>> iterator =
+                    order.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<String, Session> entry = iterator.next();
+                if (now - entry.getValue().lastAccess <= idleTimeout) {
+                    break;
+                }
+                evict(entry, iterator);
+            }
+        } finally {
+            orderLock.unlock();
+        }
+    }
+
+    /**
+     * Stops retiring idle sessions. The sessions are kept.
+     */
+    @Override
+    public void close() {
+        if (reaper != null) {
+            reaper.shutdownNow();
+        }
+    }
+
+    // called holding orderLock; the eldest sessions come first, so this
+    // takes constant time unless sessions in use have to be skipped
+    private void evictLeastRecentlyUsed(String keep) {
+        Iterator<Map.Entry<String, Session>> iterator =
+                order.entrySet().iterator();
+        while ((sessions.size() > capacity || memoryUsage.get() > memoryLimit)
+                && iterator.hasNext()) {
+            Map.Entry<String, Session> entry = iterator.next();
+            if (!entry.getKey().equals(keep)) {
+                evict(entry, iterator);
+            }
+        }
+    }
+
+    // called holding orderLock with the iterator at the session; a session
+    // in the middle of an operation is kept rather than waited for
+    private void evict(Map.Entry<String, Session> entry,
+            Iterator<?> iterator) {
+        Session session = entry.getValue();
+        if (!session.lock.tryLock()) {
+            return;
+        }
+        try {
+            iterator.remove();
+            sessions.remove(entry.getKey());
+            memoryUsage.addAndGet(-session.size);
+            evictions.incrementAndGet();
+        } finally {
+            session.lock.unlock();
+        }
+    }
+
+    private void release(Session session) {
+        session.lock.lock();
+        try {
+            memoryUsage.addAndGet(-session.size);
+        } finally {
+            session.lock.unlock();
+        }
+    }
+
+    private static long sizeOf(MastermindGame game) {
+        return game instanceof Game ? ((Game) game).estimateMemoryUsage()
+                : DEFAULT_GAME_SIZE;
+    }
+}
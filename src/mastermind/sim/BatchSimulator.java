@@ -0,0 +1,218 @@
+package mastermind.sim;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.IntStream;
+
+import mastermind.model.ColorCode;
+import mastermind.model.Game;
+import mastermind.model.GameConfig;
+import mastermind.model.GuessStrategy;
+import mastermind.model.Rating;
+
+/**
+ * Headless runner playing the machine guesser against many secrets, rating
+ * every guess with {@link ColorCode#compare(ColorCode)}. Each secret is played
+ * in its own {@link Game}, the games run in parallel.
+ */
+public final class BatchSimulator {
+
+    private final GameConfig config;
+    private final GuessStrategy strategy;
+    private final int maxGuesses;
+
+    /**
+     * Creates a simulator.
+     *
+     * @param config The board configuration.
+     * @param strategy The strategy of the machine guesser.
+     * @param maxGuesses The number of guesses after which a game is given
+     *        up, independent of the maximum moves of the board.
+     */
+    public BatchSimulator(GameConfig config, GuessStrategy strategy,
+            int maxGuesses) {
+        this.config = config;
+        this.strategy = strategy;
+        this.maxGuesses = maxGuesses;
+    }
+
+    /**
+     * Plays against every secret, or against {@code samples} secrets evenly
+     * spread over all codes if there are more.
+     *
+     * @param samples The maximum number of games.
+     * @return The results.
+     */
+    public Result run(int samples) {
+        int codes = config.getNumberOfCodes();
+        int games = Math.min(codes, samples);
+        // index 0 counts the games given up
+        AtomicLongArray histogram = new AtomicLongArray(maxGuesses + 1);
+        long start = System.nanoTime();
+        IntStream.range(0, games).parallel().forEach(i -> {
+            int secret = (int) ((long) i * codes / games);
+            histogram.incrementAndGet(
+                    play(ColorCode.fromOrdinal(config, secret)));
+        });
+        long nanos = System.nanoTime() - start;
+        long[] counts = new long[histogram.length()];
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = histogram.get(i);
+        }
+        return new Result(config, strategy.getName(), counts, nanos);
+    }
+
+    /**
+     * Plays one game.
+     *
+     * @param secret The secret code.
+     * @return The number of guesses or 0 if the game was given up.
+     */
+    public int play(ColorCode secret) {
+        Game game = new Game(config, true, strategy);
+        for (int guesses = 1; guesses <= maxGuesses; guesses++) {
+            ColorCode guess = game.machineMove();
+            if (guess == null) {
+                return 0;
+            }
+            Rating rating = secret.compare(guess);
+            if (rating.getBlack() == config.getSlots()) {
+                return guesses;
+            }
+            game.eval(rating);
+        }
+        return 0;
+    }
+
+    /**
+     * Results of a simulation.
+     */
+    public static final class Result {
+
+        private final GameConfig config;
+        private final String strategyName;
+        private final long[] histogram;
+        private final long nanos;
+
+        Result(GameConfig config, String strategyName, long[] histogram,
+                long nanos) {
+            this.config = config;
+            this.strategyName = strategyName;
+            this.histogram = histogram;
+            this.nanos = nanos;
+        }
+
+        /**
+         * Gets the number of games played.
+         *
+         * @return The number of games.
+         */
+        public long getGames() {
+            long games = 0;
+            for (long count : histogram) {
+                games += count;
+            }
+            return games;
+        }
+
+        /**
+         * Gets the number of games won with the given number of guesses.
+         *
+         * @param guesses The number of guesses, 0 for the games given up.
+         * @return The number of games.
+         */
+        public long getGames(int guesses) {
+            return guesses < histogram.length ? histogram[guesses] : 0;
+        }
+
+        /**
+         * Gets the average number of guesses of the games won.
+         *
+         * @return The average number of guesses.
+         */
+        public double getAverage() {
+            long sum = 0;
+            long won = 0;
+            for (int guesses = 1; guesses < histogram.length; guesses++) {
+                sum += guesses * histogram[guesses];
+                won += histogram[guesses];
+            }
+            return won == 0 ? 0 : (double) sum / won;
+        }
+
+        /**
+         * Gets the largest number of guesses of a game won.
+         *
+         * @return The worst case number of guesses.
+         */
+        public int getWorstCase() {
+            for (int guesses = histogram.length - 1; guesses > 0; guesses--) {
+                if (histogram[guesses] > 0) {
+                    return guesses;
+                }
+            }
+            return 0;
+        }
+
+        /**
+         * Gets the wall time of the simulation.
+         *
+         * @return The wall time in seconds.
+         */
+        public double getSeconds() {
+            return nanos / 1e9;
+        }
+
+        /**
+         * Gets the throughput of the simulation.
+         *
+         * @return The number of games per second.
+         */
+        public double getGamesPerSecond() {
+            return getGames() / getSeconds();
+        }
+
+        /**
+         * Returns a report of the results.
+         *
+         * @return The report, one line per statistic.
+         */
+        @Override
+        public String toString() {
+            StringBuilder report = new StringBuilder();
+            report.append(String.format("board %s, strategy %s%n",
+                    config, strategyName));
+            report.append(String.format("games %d, average %.4f, worst %d, "
+                    + "given up %d%n", getGames(), getAverage(),
+                    getWorstCase(), getGames(0)));
+            for (int guesses = 1; guesses < histogram.length; guesses++) {
+                if (histogram[guesses] > 0) {
+                    report.append(String.format("%3d guesses: %d%n", guesses,
+                            histogram[guesses]));
+                }
+            }
+            report.append(String.format("time %.3f s, %.1f games/s%n",
+                    getSeconds(), getGamesPerSecond()));
+            return report.toString();
+        }
+    }
+
+    /**
+     * Runs a simulation and prints the results. The board and strategy are
+     * taken from the system properties, see
+     * {@link GameConfig#fromSystemProperties()} and
+     * {@link GuessStrategy#fromSystemProperty()}.
+     *
+     * @param args Optionally the maximum number of games, all codes by
+     *        default, and the number of guesses after which a game is given
+     *        up, 20 by default.
+     */
+    public static void main(String[] args) {
+        GameConfig config = GameConfig.fromSystemProperties();
+        int samples = args.length > 0 ? Integer.parseInt(args[0])
+                : config.getNumberOfCodes();
+        int maxGuesses = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        BatchSimulator simulator = new BatchSimulator(config,
+                GuessStrategy.fromSystemProperty(), maxGuesses);
+        System.out.print(simulator.run(samples));
+    }
+}
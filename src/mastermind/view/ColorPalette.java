@@ -1,10 +1,8 @@
 package mastermind.view;
 import java.awt.Color;
 
-import mastermind.model.MastermindGame;
-
 /**
- * Class of color palette, consisting of "NUMBER_COLORS" colors
+ * Class of color palette, consisting of the colors of a board
  */
 public final class ColorPalette {
 	private final static Color DEFAULT_COLOR = Color.GRAY;
@@ -13,15 +11,16 @@ public final class ColorPalette {
 	
 	/**
 	 * Get color from palette based on its index number.
-	 * @param idx index [0..NUMBER_COLORS]
+	 * @param idx index [0..numColors]
+	 * @param numColors number of colors in the palette
 	 * @return Color 
 	 */
-	public static Color getColor(int idx) {
+	public static Color getColor(int idx, int numColors) {
 		/* produce color using HSB-color model.
 		 * saturation and brightness are fixed to 1 
 		 * hue varies based on index
 		 */		
-		return Color.getHSBColor((float)idx/MastermindGame.NUMBER_COLORS, 1, 1);		
+		return Color.getHSBColor((float)idx/numColors, 1, 1);		
 	}	
 	
 	/**
@@ -4,15 +4,24 @@ import java.awt.Color;
 import java.awt.Dimension;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.util.HashMap;
+import java.util.Map;
 import javax.swing.JComponent;
 
 
 /**
  * Color circle slot.
+ * The circle is drawn from an antialiased sprite rendered once per color and
+ * size in device pixels (circle size times HiDPI scale) and shared by all slots.
  */
 class ColorSlot extends JComponent{
 	
 	private static final long serialVersionUID = 6727087899628011219L;
+	//sprites by color (upper 32 bits) and size in device pixels, only used on the event thread
+	private static final Map<Long, BufferedImage> SPRITES = new HashMap<>();
 	private int grid_x, grid_y; //position in grid
 	private Color color;
 	private int circleSize;
@@ -57,18 +66,46 @@ class ColorSlot extends JComponent{
 	}
 	
 	/**
-	 * Set new color to a slot
+	 * Set new color to a slot. The slot is not repainted.
 	 * @param color new color
+	 * @return true if the color changed, i.e. the slot needs a repaint
 	 */
-	public void setColor(Color color) {
+	public boolean setColor(Color color) {
+		if (this.color.equals(color))
+			return false;
 		this.color = color;
+		return true;
 	}	
 	
 	@Override
 	 protected void paintComponent(Graphics g) {			
 			super.paintComponent(g);
-			Graphics2D g2 = (Graphics2D)g;	
-			g2.setColor(color);
-			g2.fillOval(0, 0, circleSize, circleSize);			
+			Graphics2D g2 = (Graphics2D)g.create();
+			AffineTransform transform = g2.getTransform();
+			int pixels = (int)Math.round(circleSize * transform.getScaleX());
+			//draw in device pixels so the sprite is not resampled on HiDPI screens
+			g2.setTransform(AffineTransform.getTranslateInstance(
+					transform.getTranslateX(), transform.getTranslateY()));
+			g2.drawImage(sprite(color, pixels), 0, 0, null);
+			g2.dispose();
 	 }	
+	
+	//gets the cached sprite of a circle, rendering it on first use
+	private static BufferedImage sprite(Color color, int pixels) {
+		long key = ((long)color.getRGB() << 32) | pixels;
+		BufferedImage sprite = SPRITES.get(key);
+		if (sprite == null) {
+			sprite = new BufferedImage(Math.max(pixels, 1), Math.max(pixels, 1),
+					BufferedImage.TYPE_INT_ARGB);
+			Graphics2D g2 = sprite.createGraphics();
+			g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+			g2.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+			g2.setRenderingHint(RenderingHints.KEY_STROKE_CONTROL, RenderingHints.VALUE_STROKE_PURE);
+			g2.setColor(color);
+			g2.fillOval(0, 0, pixels, pixels);
+			g2.dispose();
+			SPRITES.put(key, sprite);
+		}
+		return sprite;
+	}
 }
@@ -6,6 +6,7 @@ import java.awt.Graphics;
 import java.awt.Graphics2D;
 import java.awt.GridLayout;
 import java.awt.Point;
+import java.awt.Rectangle;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.awt.event.MouseAdapter;
@@ -16,8 +17,6 @@ import javax.swing.JMenuItem;
 import javax.swing.JPanel;
 import javax.swing.JPopupMenu;
 
-import mastermind.model.MastermindGame;
-
 
 /**
  * Panel with color slots.
@@ -27,6 +26,7 @@ public class ColorSlotsPanel extends JPanel{
 	private ColorSlot[][] slotsGrid;
 	private JPopupMenu popup;
 	private int numX, numY;	
+	private int numColors;
 	private int clickedSlotX = -1; //x-grid coordinate of clicked slot
 	private int[] currColorCode; //color code input by user
 	private int editRow = -1; //row number which is enabled for user edit 
@@ -36,10 +36,12 @@ public class ColorSlotsPanel extends JPanel{
 	 * @param numX number of slots along X
 	 * @param numY number of slots along Y
 	 * @param slotSize size of color slot in pixels
+	 * @param numColors number of colors offered for each slot
 	 */
-	public ColorSlotsPanel(int numX, int numY, int slotSize) {
+	public ColorSlotsPanel(int numX, int numY, int slotSize, int numColors) {
 		this.numX = numX;
 		this.numY = numY;		
+		this.numColors = numColors;
 		
 		this.setBackground(MainWindow.BG_COLOR);	
 		this.setLayout(new GridLayout(numY, numX));
@@ -69,11 +71,14 @@ public class ColorSlotsPanel extends JPanel{
 	
 	/**
 	 * revert all changes on slots to default state (before beginning of new game).
+	 * Only slots which are not in default state yet are repainted, in one request.
 	 */	
 	public void revertChanges() {		
+		Rectangle dirty = null;
 		for (int row = 0; row < numY; row++)
 			for (int col = 0; col < numX; col++)
-				repaintSlot(row, col, ColorPalette.defaultColor());
+				dirty = updateSlot(row, col, ColorPalette.defaultColor(), dirty);
+		repaintRegion(dirty);
 		setDefaultColorCode();
 		editRow = -1;		
 	}
@@ -95,10 +100,10 @@ public class ColorSlotsPanel extends JPanel{
 	protected JPopupMenu createPopupMenu(){
 		JPopupMenu colorsMenu = new JPopupMenu();
 		
-		for (int i=0; i < MastermindGame.NUMBER_COLORS; i++) { //for each color create corresponding menu item
+		for (int i=0; i < numColors; i++) { //for each color create corresponding menu item
 			JMenuItem colorMenuItem = new JMenuItem("Color "+i);
 		    colorMenuItem.setActionCommand(""+i);
-		    colorMenuItem.setBackground(ColorPalette.getColor(i));	  
+		    colorMenuItem.setBackground(ColorPalette.getColor(i, numColors));	  
 		    		    
 		    /* Add ActionListener to each menu item
 		     * Listens what item(color) from color Popup menu was chosen and changes the color of given circle
@@ -108,7 +113,7 @@ public class ColorSlotsPanel extends JPanel{
 				public void actionPerformed(ActionEvent e) {
 					int chosenColorIndex = Integer.valueOf(e.getActionCommand());
 					setColorCodeInput(getClickedSlotX(), chosenColorIndex);
-					repaintClickedSlot(ColorPalette.getColor(chosenColorIndex));
+					repaintClickedSlot(ColorPalette.getColor(chosenColorIndex, numColors));
 				
 				}
 			});
@@ -118,16 +123,37 @@ public class ColorSlotsPanel extends JPanel{
 	}
 	
 	/**
-	 * repaints slot positioned at [row, col] with new color
+	 * repaints slot positioned at [row, col] with new color, if its color changes
 	 * @param row row number of slot
 	 * @param col column number of slot
 	 * @param newColor new color to be repaint
 	 */	
 	protected void repaintSlot(int row, int col, Color newColor) {
-		if (validIndex(row, col)) {
-			slotsGrid[row][col].setColor(newColor);
-			slotsGrid[row][col].repaint();
-		}
+		repaintRegion(updateSlot(row, col, newColor, null));
+	}
+	
+	/**
+	 * Sets new color to slot positioned at [row, col] without repainting it.
+	 * @param row row number of slot
+	 * @param col column number of slot
+	 * @param newColor new color
+	 * @param dirty region to be repainted so far, null if none
+	 * @return dirty region including the slot if its color changed
+	 */
+	protected Rectangle updateSlot(int row, int col, Color newColor, Rectangle dirty) {
+		if (!validIndex(row, col) || !slotsGrid[row][col].setColor(newColor))
+			return dirty;
+		Rectangle bounds = slotsGrid[row][col].getBounds();
+		return dirty == null ? bounds : dirty.union(bounds);
+	}
+	
+	/**
+	 * Requests one repaint of a region collected by updateSlot.
+	 * @param dirty region to be repainted, null if none
+	 */
+	protected void repaintRegion(Rectangle dirty) {
+		if (dirty != null)
+			repaint(dirty);
 	}
 	
 	private boolean validIndex(int row, int col) {
@@ -140,9 +166,11 @@ public class ColorSlotsPanel extends JPanel{
 	 * @param updateColors new colors to set into slots. 
 	 */
 	public void updateRowSlots(int row, int[] updateColors) {
+		Rectangle dirty = null;
 		for(int col = 0; col < numX; col++) {
-			repaintSlot(row, col, ColorPalette.getColor(updateColors[col]));
+			dirty = updateSlot(row, col, ColorPalette.getColor(updateColors[col], numColors), dirty);
 		}
+		repaintRegion(dirty);
 	}
 	
 	/**
@@ -1,6 +1,7 @@
 package mastermind.view;
 
 import java.awt.Color;
+import java.awt.Rectangle;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 
@@ -23,7 +24,7 @@ public class EvalSlotsPanel extends ColorSlotsPanel{
 	 * @param slotSize size of color slot in pixels
 	 */
 	public EvalSlotsPanel(int numX, int numY, int slotSize) {
-		super(numX, numY, slotSize);		
+		super(numX, numY, slotSize, 0); //black/white instead of colors, see createPopupMenu		
 	}
 	
 	/**
@@ -86,10 +87,12 @@ public class EvalSlotsPanel extends ColorSlotsPanel{
 	 * @param white number of white slots
 	 */
 	void setEvalCode(int row, int black, int white) {		
+		Rectangle dirty = null;
 		for (int blackNum = 0; blackNum<black; blackNum++)
-			repaintSlot(row, blackNum, Color.BLACK);
+			dirty = updateSlot(row, blackNum, Color.BLACK, dirty);
 		for (int whiteNum = black; whiteNum<black+white; whiteNum++)
-			repaintSlot(row, whiteNum, Color.WHITE);			
+			dirty = updateSlot(row, whiteNum, Color.WHITE, dirty);
+		repaintRegion(dirty);
 	}
 	
 	/**
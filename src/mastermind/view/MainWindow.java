@@ -3,7 +3,7 @@ package mastermind.view;
 import javax.swing.*;
 import javax.swing.border.TitledBorder;
 
-import mastermind.model.MastermindGame;
+import mastermind.model.GameConfig;
 
 import java.awt.*;
 import java.awt.event.ActionListener;
@@ -37,9 +37,21 @@ public class MainWindow{
 	private JButton moveBtn;	
 
 	/**
-	 * Create main game window and its components
+	 * Create main game window and its components for the classic board
 	 */
 	public MainWindow() {
+		this(GameConfig.CLASSIC);
+	}
+	
+	/**
+	 * Create main game window and its components for the given board.
+	 * The window grows with the number of slots and moves.
+	 * @param config board configuration
+	 */
+	public MainWindow(GameConfig config) {
+		//slots take 75% of the window
+		int width = Math.max(MIN_WIDTH, config.getSlots()*COLOR_SLOT_SIZE*4/3);
+		int height = Math.max(MIN_HEIGHT, (config.getMaxMoves()+1)*COLOR_SLOT_SIZE*4/3);
 		mainFrame = new JFrame("Mastermind");
 		Container pane = mainFrame.getContentPane(); //frame content 
 		pane.setBackground(BG_COLOR);		
@@ -49,7 +61,7 @@ public class MainWindow{
 		//Creating frame components
 		//label with messages for user
 		statusLbl = new JLabel("Master mind game");
-		statusLbl.setMinimumSize(new Dimension((int)(MIN_WIDTH*0.8), (int)(MIN_HEIGHT*0.05)));
+		statusLbl.setMinimumSize(new Dimension((int)(width*0.8), (int)(height*0.05)));
 		statusLbl.setBackground(Color.ORANGE);
 		statusLbl.setOpaque(true);
 		c.fill = GridBagConstraints.BOTH;
@@ -61,9 +73,9 @@ public class MainWindow{
 		pane.add(statusLbl, c);
 		
 		//Panel with color slots
-		colorsSlotsPanel = new ColorSlotsPanel(MastermindGame.NUMBER_SLOTS, MastermindGame.MAX_MOVES, COLOR_SLOT_SIZE);
-		colorsSlotsPanel.setMinimumSize(new Dimension((int)(MIN_WIDTH*0.75), (int)(MIN_HEIGHT*0.75)));
-		colorsSlotsPanel.setPreferredSize(new Dimension((int)(MIN_WIDTH*0.75), (int)(MIN_HEIGHT*0.75)));
+		colorsSlotsPanel = new ColorSlotsPanel(config.getSlots(), config.getMaxMoves(), COLOR_SLOT_SIZE, config.getColors());
+		colorsSlotsPanel.setMinimumSize(new Dimension((int)(width*0.75), (int)(height*0.75)));
+		colorsSlotsPanel.setPreferredSize(new Dimension((int)(width*0.75), (int)(height*0.75)));
 		//c.fill = GridBagConstraints.BOTH;
 		c.anchor = GridBagConstraints.NORTHEAST;
 		c.gridx = 0;
@@ -75,9 +87,9 @@ public class MainWindow{
 		pane.add(colorsSlotsPanel, c);
 		
 		//Panel with black/white slots for Rating
-		bwSlotsPanel = new EvalSlotsPanel(MastermindGame.NUMBER_SLOTS, MastermindGame.MAX_MOVES, EVAL_SLOT_SIZE);
-		bwSlotsPanel.setMinimumSize(new Dimension((int)(MIN_WIDTH*0.25), (int)(MIN_HEIGHT*0.75)));
-		bwSlotsPanel.setPreferredSize(new Dimension((int)(MIN_WIDTH*0.25), (int)(MIN_HEIGHT*0.75)));
+		bwSlotsPanel = new EvalSlotsPanel(config.getSlots(), config.getMaxMoves(), EVAL_SLOT_SIZE);
+		bwSlotsPanel.setMinimumSize(new Dimension((int)(width*0.25), (int)(height*0.75)));
+		bwSlotsPanel.setPreferredSize(new Dimension((int)(width*0.25), (int)(height*0.75)));
 		c.fill = GridBagConstraints.BOTH;
 		c.gridx = 2;
 		c.gridy = 1;
@@ -86,9 +98,9 @@ public class MainWindow{
 		pane.add(bwSlotsPanel, c);
 		
 		//Panel with slots for secret code
-		secretCodePanel = new ColorSlotsPanel(MastermindGame.NUMBER_SLOTS, 1, COLOR_SLOT_SIZE);
-		secretCodePanel.setMinimumSize(new Dimension((int)(MIN_WIDTH*0.75), (int)(MIN_HEIGHT*0.12)));
-		secretCodePanel.setPreferredSize(new Dimension((int)(MIN_WIDTH*0.75), (int)(MIN_HEIGHT*0.12)));
+		secretCodePanel = new ColorSlotsPanel(config.getSlots(), 1, COLOR_SLOT_SIZE, config.getColors());
+		secretCodePanel.setMinimumSize(new Dimension((int)(width*0.75), (int)(height*0.12)));
+		secretCodePanel.setPreferredSize(new Dimension((int)(width*0.75), (int)(height*0.12)));
 		secretCodePanel.setBorder(new TitledBorder("Secret"));
 		c.fill = GridBagConstraints.BOTH;
 		c.gridx = 0;
@@ -132,8 +144,8 @@ public class MainWindow{
 		mainFrame.revalidate();
 		mainFrame.pack();
 		mainFrame.setDefaultCloseOperation(WindowConstants.DISPOSE_ON_CLOSE);
-		mainFrame.setMinimumSize(new Dimension(MIN_WIDTH, MIN_HEIGHT));
-		mainFrame.setSize(MIN_WIDTH, MIN_HEIGHT);		
+		mainFrame.setMinimumSize(new Dimension(width, height));
+		mainFrame.setSize(width, height);		
 	}		
 	
 	/**
@@ -144,6 +156,16 @@ public class MainWindow{
 		this.statusLbl.setText(text);
 	}	
 	
+	/**
+	 * Shows whether a move is being computed. While busy, the "Move" button
+	 * is disabled and the wait cursor is shown.
+	 * @param busy true while a move is computed
+	 */
+	public void setBusy(boolean busy) {
+		moveBtn.setEnabled(!busy);
+		mainFrame.setCursor(busy ? Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR) : null);
+	}
+	
 	// functions to add action to buttons 
 	/**
 	 * Adds Actions (ActionListener) to the button "Move" 